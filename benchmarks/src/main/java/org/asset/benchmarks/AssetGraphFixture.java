@@ -0,0 +1,80 @@
+package org.asset.benchmarks;
+
+import org.asset.dto.AssetDto;
+import org.asset.model.Asset;
+import org.asset.model.AssetAttribute;
+import org.asset.model.AssetLink;
+import org.asset.service.AssetMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Sintetični graf assetov velikosti "assets x attributes x links"; povezave so naključne, a ponovljive (fiksno seme)
+public class AssetGraphFixture {
+
+    private static final long SEED = 42L;
+
+    private static final String[] TYPES = {"STRING", "NUMBER", "BOOLEAN", "DATE"};
+
+    private final List<Asset> assets;
+
+    private AssetGraphFixture(List<Asset> assets) {
+        this.assets = assets;
+    }
+
+    // Oblika: "1000x10x5" = 1000 assetov, 10 atributov na asset, 5 izhodnih povezav na asset
+    public static AssetGraphFixture of(String size) {
+        String[] parts = size.split("x");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Size must be assets x attributes x links, got " + size);
+        }
+        return build(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    }
+
+    public static AssetGraphFixture build(int assetCount, int attributesPerAsset, int linksPerAsset) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Asset> assets = new ArrayList<>(assetCount);
+
+        long attributeId = 1;
+        for (int i = 0; i < assetCount; i++) {
+            Asset asset = new Asset();
+            asset.setId((long) i + 1);
+            asset.setTitle("Asset " + (i + 1));
+            for (int j = 0; j < attributesPerAsset; j++) {
+                AssetAttribute attribute = new AssetAttribute();
+                attribute.setId(attributeId++);
+                attribute.setName("attribute-" + j);
+                attribute.setType(TYPES[j % TYPES.length]);
+                attribute.setRequired(j % 2 == 0);
+                attribute.setMinValue(String.valueOf(random.nextInt(100)));
+                attribute.setMaxValue(String.valueOf(100 + random.nextInt(100)));
+                asset.getAttributes().add(attribute);
+            }
+            assets.add(asset);
+        }
+
+        long linkId = 1;
+        for (Asset source : assets) {
+            for (int k = 0; k < linksPerAsset; k++) {
+                Asset target = assets.get(random.nextInt(assetCount));
+                AssetLink link = new AssetLink();
+                link.setId(linkId++);
+                link.setSourceAsset(source);
+                link.setTargetAsset(target);
+                source.getOutgoingLinks().add(link);
+                target.getIncomingLinks().add(link);
+            }
+        }
+        return new AssetGraphFixture(assets);
+    }
+
+    public List<Asset> getAssets() {
+        return assets;
+    }
+
+    public List<AssetDto> toDtos() {
+        return AssetMapper.mapToDtoList(assets);
+    }
+
+}
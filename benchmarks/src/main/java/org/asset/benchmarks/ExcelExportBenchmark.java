@@ -0,0 +1,68 @@
+package org.asset.benchmarks;
+
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.service.AssetExcelWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Generiranje zvezka kot v exportAssetToExcel / exportAssetsToExcel; izhod gre v prazen tok, da merimo le POI
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExcelExportBenchmark {
+
+    @Param({"100x5x2", "1000x10x5", "10000x10x5"})
+    public String size;
+
+    @Param({"100"})
+    public int rowWindow;
+
+    private List<AssetDto> assetDtos;
+
+    private List<AssetAttributeDto> singleAssetAttributes;
+
+    @Setup
+    public void setup() {
+        assetDtos = AssetGraphFixture.of(size).toDtos();
+        singleAssetAttributes = assetDtos.get(0).getAttributes();
+    }
+
+    @Benchmark
+    public void exportSingleAsset() throws IOException {
+        try (AssetExcelWriter writer = AssetExcelWriter.forAttributes(rowWindow)) {
+            for (AssetAttributeDto attribute : singleAssetAttributes) {
+                writer.writeAttribute(attribute);
+            }
+            writer.write(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public void exportAllAssets() throws IOException {
+        try (AssetExcelWriter writer = AssetExcelWriter.forAssets(rowWindow)) {
+            for (AssetDto assetDto : assetDtos) {
+                writer.writeAsset(assetDto);
+            }
+            writer.write(OutputStream.nullOutputStream());
+        }
+    }
+
+}
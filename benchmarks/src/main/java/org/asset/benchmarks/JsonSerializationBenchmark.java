@@ -0,0 +1,49 @@
+package org.asset.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.asset.dto.AssetDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON serializacija seznama AssetDto, kot ga vrne GET /assets
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100x5x2", "1000x10x5", "10000x10x5"})
+    public String size;
+
+    private List<AssetDto> assetDtos;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        assetDtos = AssetGraphFixture.of(size).toDtos();
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public void serializeList() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), assetDtos);
+    }
+
+}
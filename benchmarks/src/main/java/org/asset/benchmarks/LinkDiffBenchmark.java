@@ -0,0 +1,71 @@
+package org.asset.benchmarks;
+
+import org.asset.dto.AssetLinkDto;
+import org.asset.model.Asset;
+import org.asset.model.AssetLink;
+import org.asset.service.AssetLinkDiff;
+import org.asset.service.AssetMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Razlika povezav iz updateAsset (PUT /assets/{id}) za vse assete v grafu.
+ * Želeno stanje: polovica povezav ostane po id-ju, četrtina pride brez id-ja z istim koncem, četrtina je novih.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkDiffBenchmark {
+
+    @Param({"100x5x2", "1000x10x5", "10000x10x5"})
+    public String size;
+
+    private List<Asset> assets;
+
+    private List<List<AssetLinkDto>> desiredOutgoing;
+
+    @Setup
+    public void setup() {
+        assets = AssetGraphFixture.of(size).getAssets();
+        desiredOutgoing = new ArrayList<>(assets.size());
+        for (Asset asset : assets) {
+            List<AssetLinkDto> desired = new ArrayList<>();
+            List<AssetLink> links = asset.getOutgoingLinks();
+            for (int i = 0; i < links.size(); i++) {
+                AssetLinkDto linkDto = AssetMapper.mapToDto(links.get(i));
+                switch (i % 4) {
+                    case 0, 1 -> desired.add(linkDto);
+                    case 2 -> desired.add(new AssetLinkDto(null, asset.getId(), linkDto.getTargetAssetId()));
+                    default -> desired.add(new AssetLinkDto(null, asset.getId(), (long) (i % assets.size()) + 1));
+                }
+            }
+            desiredOutgoing.add(desired);
+        }
+    }
+
+    @Benchmark
+    public void computeOutgoing(Blackhole blackhole) {
+        for (int i = 0; i < assets.size(); i++) {
+            Asset asset = assets.get(i);
+            blackhole.consume(AssetLinkDiff.compute(asset.getId(), true, asset.getOutgoingLinks(), desiredOutgoing.get(i)));
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.asset.benchmarks;
+
+import org.asset.dto.AssetDto;
+import org.asset.model.Asset;
+import org.asset.service.AssetMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// AssetMapper: entitete -> DTO (GET /assets/{id}, odgovori POST/PUT) in DTO -> entitete (POST /assets)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"100x5x2", "1000x10x5", "10000x10x5"})
+    public String size;
+
+    private List<Asset> assets;
+
+    private List<AssetDto> assetDtos;
+
+    @Setup
+    public void setup() {
+        AssetGraphFixture fixture = AssetGraphFixture.of(size);
+        assets = fixture.getAssets();
+        assetDtos = fixture.toDtos();
+    }
+
+    @Benchmark
+    public List<AssetDto> mapToDto() {
+        return AssetMapper.mapToDtoList(assets);
+    }
+
+    @Benchmark
+    public void mapToEntity(Blackhole blackhole) {
+        for (AssetDto assetDto : assetDtos) {
+            blackhole.consume(AssetMapper.mapToEntity(assetDto));
+        }
+    }
+
+}
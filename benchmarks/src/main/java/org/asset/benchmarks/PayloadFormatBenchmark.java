@@ -0,0 +1,108 @@
+package org.asset.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.asset.dto.AssetDto;
+import org.asset.dto.ConnectedAssetDto;
+import org.asset.resource.BinaryFormatWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Velikost in CPU serializacije odgovorov getAllAssets (stran AssetDto) in getConnectedAssets
+ * v JSON, CBOR in Smile, z gzip ali brez. Velikost v bajtih se izpiše ob pripravi vsake kombinacije.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"1000x10x5"})
+    public String size;
+
+    @Param({"assets", "connected"})
+    public String payload;
+
+    @Param({"application/json", BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private Object body;
+
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setup() {
+        List<AssetDto> assets = AssetGraphFixture.of(size).toDtos();
+        // Privzeta stran GET /assets je 100 assetov; getConnectedAssets vrne vse dosegljive
+        if ("assets".equals(payload)) {
+            body = assets.subList(0, Math.min(100, assets.size()));
+        } else {
+            List<ConnectedAssetDto> connected = new ArrayList<>(assets.size());
+            for (AssetDto asset : assets) {
+                ConnectedAssetDto connectedAsset = new ConnectedAssetDto(asset.getId(), asset.getTitle());
+                connectedAsset.setDistance((int) (asset.getId() % 5) + 1);
+                connected.add(connectedAsset);
+            }
+            body = connected;
+        }
+        ObjectMapper jsonMapper = new ObjectMapper();
+        mapper = "application/json".equals(format) ? jsonMapper : BinaryFormatWriter.binaryMapper(jsonMapper, format);
+        try {
+            System.out.printf("%n%s %s gzip=%s: %d bytes%n", payload, format, gzip, serialize());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream out = new GZIPOutputStream(counter, 8192)) {
+                mapper.writeValue(out, body);
+            }
+        } else {
+            mapper.writeValue(counter, body);
+        }
+        return counter.count;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.asset.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Čas, da se obdela "concurrency" hkratnih zahtev, od katerih vsaka 20 ms čaka na bazo.
+ * worker-200: fiksni pool kot privzeti Quarkus worker pool; virtual: kot @RunOnVirtualThread;
+ * virtual-pinned: isto, a čakanje v synchronized bloku, kot pri gonilniku, ki pripne virtualno nit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class VirtualThreadScalingBenchmark {
+
+    private static final long DATABASE_WAIT_MILLIS = 20;
+
+    @Param({"200", "1000", "5000"})
+    public int concurrency;
+
+    @Param({"worker-200", "virtual", "virtual-pinned"})
+    public String pool;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = pool.equals("worker-200")
+                ? Executors.newFixedThreadPool(200)
+                : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int concurrentRequests() throws Exception {
+        boolean pinned = pool.equals("virtual-pinned");
+        List<Future<Integer>> requests = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Object monitor = new Object();
+            requests.add(executor.submit(() -> pinned ? waitPinned(monitor) : waitForDatabase()));
+        }
+        int completed = 0;
+        for (Future<Integer> request : requests) {
+            completed += request.get();
+        }
+        return completed;
+    }
+
+    private static int waitForDatabase() throws InterruptedException {
+        Thread.sleep(DATABASE_WAIT_MILLIS);
+        return 1;
+    }
+
+    private static int waitPinned(Object monitor) throws InterruptedException {
+        synchronized (monitor) {
+            return waitForDatabase();
+        }
+    }
+
+}
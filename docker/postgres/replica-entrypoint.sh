@@ -0,0 +1,14 @@
+#!/bin/bash
+# Pretočna replika asset-db: ob prvem zagonu kopija s pg_basebackup (-R zapiše standby.signal in primary_conninfo)
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_basebackup -h "$PRIMARY_HOST" -p "${PRIMARY_PORT:-5432}" -U "$PGUSER" -D "$PGDATA" -R -X stream; do
+    echo "Waiting for primary $PRIMARY_HOST..."
+    rm -rf "${PGDATA:?}"/*
+    sleep 2
+  done
+  chmod 0700 "$PGDATA"
+fi
+
+exec postgres
@@ -0,0 +1,28 @@
+#!/usr/bin/env bash
+# Primerjava blokirajočih (/assets) in reaktivnih (/reactive/assets) endpointov pod enako obremenitvijo.
+# Potrebuje zagnano aplikacijo, bazo z nekaj podatki in orodje "hey" (https://github.com/rakyll/hey).
+#
+#   ./load/compare.sh [base-url] [asset-id] [concurrency] [duration]
+#
+# Za primerljive rezultate omeji delovne niti, npr. -Dquarkus.thread-pool.max-threads=16,
+# da se pokaže razlika, ko blokirajoča različica ostane brez niti.
+set -euo pipefail
+
+BASE_URL=${1:-http://localhost:8080}
+ASSET_ID=${2:-1}
+CONCURRENCY=${3:-200}
+DURATION=${4:-30s}
+
+run() {
+  local name=$1
+  local url=$2
+  echo "== ${name}: ${url}"
+  hey -z "${DURATION}" -c "${CONCURRENCY}" "${url}" \
+    | grep -E "Requests/sec|Average|Slowest|Fastest|  (50|90|99)%|\[[0-9]{3}\]"
+  echo
+}
+
+for path in "" "/${ASSET_ID}" "/${ASSET_ID}/connected-assets?depth=3"; do
+  run "blocking" "${BASE_URL}/assets${path}"
+  run "reactive" "${BASE_URL}/reactive/assets${path}"
+done
@@ -0,0 +1,59 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.jboss.logging.Logger;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+ * Trigram indeks za iskanje po naslovu (GET /assets/search). Razred je v paketu db.migration, ker Quarkus
+ * Java migracije išče samo v lokaciji migracij.
+ * Razširitev pg_trgm zahteva pravico CREATE na bazi, ki je aplikacijski uporabnik v produkciji navadno nima.
+ * Če razširitev ni nameščena in je ni mogoče ustvariti, se migracija zaključi brez indeksa in to zapiše v log:
+ * iskanje deluje naprej s sekvenčnim pregledom, DBA pa razširitev in indeks doda ročno (glej README).
+ * Teče izven transakcije, ker CREATE INDEX CONCURRENTLY v transakciji ni dovoljen.
+ */
+public class V4__Asset_title_trigram_index extends BaseJavaMigration {
+
+    private static final Logger LOG = Logger.getLogger(V4__Asset_title_trigram_index.class);
+
+    private static final String INDEX = "create index concurrently if not exists idx_asset_title_trgm " +
+            "on asset using gin (lower(title) gin_trgm_ops)";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            if (!extensionInstalled(statement) && !createExtension(statement)) {
+                return;
+            }
+            statement.execute(INDEX);
+        }
+    }
+
+    private static boolean extensionInstalled(Statement statement) throws SQLException {
+        try (ResultSet rows = statement.executeQuery("select 1 from pg_extension where extname = 'pg_trgm'")) {
+            return rows.next();
+        }
+    }
+
+    // Brez transakcije neuspel CREATE EXTENSION ne pokvari povezave, zato se napaka samo zapiše
+    private static boolean createExtension(Statement statement) {
+        try {
+            statement.execute("create extension if not exists pg_trgm");
+            return true;
+        } catch (SQLException e) {
+            LOG.warnf("pg_trgm extension is not installed and could not be created (%s); " +
+                    "idx_asset_title_trgm was not created, title search falls back to a sequential scan", e.getMessage());
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.asset.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class AssetBatchGetRequestDto {
+
+    private List<Long> ids;
+
+}
@@ -0,0 +1,17 @@
+package org.asset.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class AssetBatchGetResultDto {
+
+    private List<AssetDto> assets = new ArrayList<>();
+
+    private List<Long> missingIds = new ArrayList<>();
+
+}
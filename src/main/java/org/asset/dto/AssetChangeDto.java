@@ -0,0 +1,21 @@
+package org.asset.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Dogodek v GET /assets/changes: kateri asset se je spremenil; vsebino odjemalec prebere sam (z If-None-Match)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetChangeDto {
+
+    private long sequence;
+
+    private Long assetId;
+
+    private String type;
+
+}
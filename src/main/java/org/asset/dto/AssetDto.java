@@ -1,15 +1,24 @@
 package org.asset.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.ArrayList;
 import java.util.List;
 
+// Kolekcije, ki jih fields= izpusti, so null in se ne izpišejo
 @Getter
 @Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class AssetDto {
 
+    private Long id;
+
     private String title;
 
     private List<AssetAttributeDto> attributes;
@@ -18,4 +27,17 @@ public class AssetDto {
 
     private List<AssetLinkDto> incomingLinks;
 
+    // Samo za ETag odgovora; odjemalec verzijo dobi v glavi, ne v telesu
+    @JsonIgnore
+    private Long version;
+
+    // Konstruktor za JPQL projekcije, kolekcije napolni AssetQueryRepository
+    public AssetDto(Long id, String title) {
+        this.id = id;
+        this.title = title;
+        this.attributes = new ArrayList<>();
+        this.outgoingLinks = new ArrayList<>();
+        this.incomingLinks = new ArrayList<>();
+    }
+
 }
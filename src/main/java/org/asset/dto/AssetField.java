@@ -0,0 +1,55 @@
+package org.asset.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Kolekcije AssetDto, ki jih odjemalec izbere s fields=; id in naslov sta vedno prisotna
+public enum AssetField {
+
+    ATTRIBUTES("attributes"), OUTGOING_LINKS("outgoingLinks"), INCOMING_LINKS("incomingLinks");
+
+    private final String jsonName;
+
+    AssetField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    // Brez parametra vse kolekcije kot doslej; "id" in "title" sta dovoljena, a ne vplivata na poizvedbe
+    public static Set<AssetField> parse(String value) {
+        if (value == null || value.isBlank()) {
+            return EnumSet.allOf(AssetField.class);
+        }
+        Set<AssetField> fields = EnumSet.noneOf(AssetField.class);
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty() || trimmed.equals("id") || trimmed.equals("title")) {
+                continue;
+            }
+            fields.add(fromJsonName(trimmed));
+        }
+        return fields;
+    }
+
+    private static AssetField fromJsonName(String name) {
+        for (AssetField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    // Izbrane kolekcije kot bitna maska za ETag: vsaka projekcija istega asseta ima svojo oznako
+    public static int mask(Set<AssetField> fields) {
+        int mask = 0;
+        for (AssetField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return mask;
+    }
+
+    public static boolean includesLinks(Set<AssetField> fields) {
+        return fields.contains(OUTGOING_LINKS) || fields.contains(INCOMING_LINKS);
+    }
+
+}
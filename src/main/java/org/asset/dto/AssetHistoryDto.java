@@ -0,0 +1,26 @@
+package org.asset.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetHistoryDto {
+
+    private Long id;
+
+    private String type;
+
+    // Podrobnosti kot drevo, ne kot surov JSON: CBOR in Smile surovih vrednosti ne znata zapisati
+    private JsonNode details;
+
+    private Instant changedAt;
+
+}
@@ -0,0 +1,23 @@
+package org.asset.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Delna sprememba asseta; polja, ki so null, ostanejo nespremenjena
+@Getter
+@Setter
+public class AssetPatchDto {
+
+    private String title;
+
+    private List<AssetAttributeDto> addAttributes;
+
+    private List<String> removeAttributes;
+
+    private List<AssetLinkDto> addLinks;
+
+    private List<Long> removeLinkIds;
+
+}
@@ -0,0 +1,29 @@
+package org.asset.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Filtri za GET /assets/search; polja, ki so null, se ne upoštevajo, atributni filtri veljajo za isti atribut
+@Getter
+@Setter
+public class AssetSearchCriteria {
+
+    private String title;
+
+    private String titlePrefix;
+
+    private String attributeName;
+
+    private String attributeType;
+
+    private Boolean required;
+
+    public boolean hasAttributeFilter() {
+        return attributeName != null || attributeType != null || required != null;
+    }
+
+    public boolean isEmpty() {
+        return title == null && titlePrefix == null && !hasAttributeFilter();
+    }
+
+}
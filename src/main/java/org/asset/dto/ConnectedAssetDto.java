@@ -2,14 +2,23 @@ package org.asset.dto;
 
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Getter
 @Setter
+@NoArgsConstructor
 public class ConnectedAssetDto {
 
     private Long id;
 
     private String title;
 
+    private int distance;
+
+    public ConnectedAssetDto(Long id, String title) {
+        this.id = id;
+        this.title = title;
+    }
+
 }
@@ -0,0 +1,23 @@
+package org.asset.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Stanje izvoznega opravila; downloadUrl je nastavljen, ko je status DONE
+@Getter
+@Setter
+public class ExportJobDto {
+
+    private String id;
+
+    private Long assetId;
+
+    private long version;
+
+    private String status;
+
+    private String error;
+
+    private String downloadUrl;
+
+}
@@ -0,0 +1,16 @@
+package org.asset.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ImportRejectionDto {
+
+    private long row;
+
+    private String reason;
+
+}
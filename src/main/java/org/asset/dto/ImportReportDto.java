@@ -0,0 +1,23 @@
+package org.asset.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class ImportReportDto {
+
+    private int imported;
+
+    private int rejected;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    private List<ImportRejectionDto> rejections = new ArrayList<>();
+
+}
@@ -0,0 +1,16 @@
+package org.asset.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class LinkBatchRequestDto {
+
+    private List<AssetLinkDto> create;
+
+    private List<Long> remove;
+
+}
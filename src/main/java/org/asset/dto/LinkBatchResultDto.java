@@ -0,0 +1,21 @@
+package org.asset.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class LinkBatchResultDto {
+
+    private List<AssetLinkDto> created = new ArrayList<>();
+
+    private List<Long> removed = new ArrayList<>();
+
+    private List<Long> missingAssetIds = new ArrayList<>();
+
+    private List<Long> missingLinkIds = new ArrayList<>();
+
+}
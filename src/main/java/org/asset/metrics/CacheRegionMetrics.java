@@ -0,0 +1,56 @@
+package org.asset.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+// Delež zadetkov in zgrešitev za vsako regijo second-level cache-a, za določanje velikosti cache-a
+@ApplicationScoped
+public class CacheRegionMetrics {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    void onStart(@Observes StartupEvent event) {
+        Statistics statistics = sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("asset.cache.hit.ratio", statistics, stats -> hitRatio(stats.getCacheRegionStatistics(region)))
+                    .description("Share of second-level cache lookups answered from the region")
+                    .tag("region", region)
+                    .register(meterRegistry);
+            Gauge.builder("asset.cache.miss.ratio", statistics, stats -> 1 - hitRatio(stats.getCacheRegionStatistics(region)))
+                    .description("Share of second-level cache lookups that went to the database")
+                    .tag("region", region)
+                    .register(meterRegistry);
+            Gauge.builder("asset.cache.elements", statistics, stats -> elements(stats.getCacheRegionStatistics(region)))
+                    .description("Entries currently held in the region")
+                    .tag("region", region)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return 0;
+        }
+        long lookups = region.getHitCount() + region.getMissCount();
+        return lookups == 0 ? 0 : (double) region.getHitCount() / lookups;
+    }
+
+    private static double elements(CacheRegionStatistics region) {
+        return region == null ? 0 : region.getElementCountInMemory();
+    }
+
+}
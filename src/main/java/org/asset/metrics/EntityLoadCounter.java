@@ -0,0 +1,31 @@
+package org.asset.metrics;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+// Vsaka entiteta, ki jo Hibernate naloži (iz baze ali second-level cache-a), se prišteje trenutni zahtevi
+@PersistenceUnitExtension
+@ApplicationScoped
+public class EntityLoadCounter implements Interceptor {
+
+    @Inject
+    RequestSqlStats stats;
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        if (RequestSqlStats.active()) {
+            stats.entityLoaded();
+        }
+        return false;
+    }
+
+    // Ponovljenega @PersistenceUnitExtension Quarkus ne upošteva (števec ne bi bil registriran nikjer), zato podrazred
+    @PersistenceUnitExtension("read")
+    @ApplicationScoped
+    static class ReadUnit extends EntityLoadCounter {
+    }
+
+}
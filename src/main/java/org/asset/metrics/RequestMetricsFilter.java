@@ -0,0 +1,133 @@
+package org.asset.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/*
+ * Število SQL stavkov in naloženih entitet na zahtevo, po endpointih.
+ * Odgovori s telesom se zaključijo šele po pisanju telesa, da štejemo tudi lene poizvedbe
+ * med serializacijo in pretočnim izvozom (StreamingOutput).
+ */
+@Provider
+public class RequestMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final Logger LOG = Logger.getLogger(RequestMetricsFilter.class);
+
+    // Nastavljena, dokler zahteva še ni zapisana v metrike; števci so v RequestSqlStats (request kontekst)
+    private static final String ENDPOINT_PROPERTY = RequestMetricsFilter.class.getName() + ".endpoint";
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    RequestSqlStats stats;
+
+    @ConfigProperty(name = "asset.metrics.sql.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "asset.metrics.sql.statement-threshold", defaultValue = "20")
+    int statementThreshold;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!enabled) {
+            return;
+        }
+        requestContext.setProperty(ENDPOINT_PROPERTY, requestContext.getMethod() + " " + endpointTemplate());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        String endpoint = (String) requestContext.getProperty(ENDPOINT_PROPERTY);
+        if (endpoint == null) {
+            return;
+        }
+        if (responseContext.hasEntity()) {
+            // Zaključi se v aroundWriteTo
+            return;
+        }
+        requestContext.removeProperty(ENDPOINT_PROPERTY);
+        record(endpoint);
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        String endpoint = (String) context.getProperty(ENDPOINT_PROPERTY);
+        try {
+            context.proceed();
+        } finally {
+            if (endpoint != null) {
+                context.removeProperty(ENDPOINT_PROPERTY);
+                record(endpoint);
+            }
+        }
+    }
+
+    private void record(String endpoint) {
+        DistributionSummary.builder("asset.request.sql.statements")
+                .description("SQL statements issued per request")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("asset.request.entities.loaded")
+                .description("Entities loaded by Hibernate per request")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getEntitiesLoaded());
+
+        if (stats.getStatements() > statementThreshold) {
+            Counter.builder("asset.request.sql.threshold.exceeded")
+                    .description("Requests that issued more SQL statements than asset.metrics.sql.statement-threshold")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .increment();
+            LOG.warnf("%s issued %d SQL statements and loaded %d entities (threshold %d), possible N+1",
+                    endpoint, stats.getStatements(), stats.getEntitiesLoaded(), statementThreshold);
+        }
+    }
+
+    // Predloga poti (npr. /assets/{id}), da ima metrika omejeno število vrednosti oznake
+    private String endpointTemplate() {
+        Class<?> resourceClass = resourceInfo.getResourceClass();
+        Method resourceMethod = resourceInfo.getResourceMethod();
+        if (resourceClass == null || resourceMethod == null) {
+            return "unmatched";
+        }
+        StringBuilder template = new StringBuilder();
+        Path classPath = resourceClass.getAnnotation(Path.class);
+        if (classPath != null) {
+            template.append(classPath.value());
+        }
+        Path methodPath = resourceMethod.getAnnotation(Path.class);
+        if (methodPath != null) {
+            if (!methodPath.value().startsWith("/")) {
+                template.append('/');
+            }
+            template.append(methodPath.value());
+        }
+        return template.toString();
+    }
+
+}
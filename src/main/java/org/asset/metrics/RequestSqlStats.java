@@ -0,0 +1,59 @@
+package org.asset.metrics;
+
+import io.quarkus.arc.Arc;
+import jakarta.enterprise.context.RequestScoped;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Števci SQL stavkov in naloženih entitet za trenutno HTTP zahtevo. Request kontekst sledi zahtevi
+ * z V/I niti na virtualno nit endpointa in pisanje odgovora, zato filtri in Hibernate vidijo iste števce,
+ * ne glede na to, na kateri niti tečejo.
+ */
+@RequestScoped
+public class RequestSqlStats {
+
+    private int statements;
+
+    private int entitiesLoaded;
+
+    // Besedilo stavkov se hrani le na zahtevo (test plana poizvedb), sicer bi se zahteva z veliko stavki napihnila
+    private List<String> sql;
+
+    // Izven HTTP zahteve (zagon, uvoz in izvoz v ozadju) request kontekst ni aktiven in se nič ne šteje
+    static boolean active() {
+        return Arc.container().requestContext().isActive();
+    }
+
+    void statementPrepared(String statement) {
+        statements++;
+        if (sql != null) {
+            sql.add(statement);
+        }
+    }
+
+    public void recordSql() {
+        if (sql == null) {
+            sql = new ArrayList<>();
+        }
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    // SQL, ki ga je Hibernate pripravil od klica recordSql, z ? namesto parametrov
+    public List<String> getSql() {
+        return sql == null ? List.of() : sql;
+    }
+
+}
@@ -0,0 +1,30 @@
+package org.asset.metrics;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Vsak SQL stavek, ki ga Hibernate pripravi, se prišteje trenutni zahtevi
+@PersistenceUnitExtension
+@ApplicationScoped
+public class SqlStatementCounter implements StatementInspector {
+
+    @Inject
+    RequestSqlStats stats;
+
+    @Override
+    public String inspect(String sql) {
+        if (RequestSqlStats.active()) {
+            stats.statementPrepared(sql);
+        }
+        return sql;
+    }
+
+    // Ponovljenega @PersistenceUnitExtension Quarkus ne upošteva (števec ne bi bil registriran nikjer), zato podrazred
+    @PersistenceUnitExtension("read")
+    @ApplicationScoped
+    static class ReadUnit extends SqlStatementCounter {
+    }
+
+}
@@ -3,9 +3,13 @@ package org.asset.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Getter
 @Setter
@@ -13,21 +17,31 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
 public class Asset {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_seq")
+    @SequenceGenerator(name = "asset_seq", sequenceName = "asset_seq", allocationSize = 50)
     private Long id;
 
     private String title;
 
+    // Poveča se ob vsaki spremembi naslova, atributov ali povezav; iz nje je ETag v AssetResource
+    @Version
+    private Long version;
+
     @ManyToMany
-    private List<AssetAttribute> attributes = new ArrayList<>();
+    @OrderBy("id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<AssetAttribute> attributes = new LinkedHashSet<>();
 
     @OneToMany(mappedBy = "sourceAsset", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<AssetLink> outgoingLinks = new ArrayList<>();
 
     @OneToMany(mappedBy = "targetAsset", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<AssetLink> incomingLinks = new ArrayList<>();
 
 }
@@ -1,10 +1,14 @@
 package org.asset.model;
 
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.*;
 
 @Getter
@@ -13,10 +17,13 @@ import lombok.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Table(indexes = @Index(name = "idx_asset_attribute_name_type", columnList = "name, type"))
 public class AssetAttribute {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_attribute_seq")
+    @SequenceGenerator(name = "asset_attribute_seq", sequenceName = "asset_attribute_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -0,0 +1,36 @@
+package org.asset.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+// Vrstica zgodovine sprememb; vstavlja jo AssetHistoryWriter prek JDBC, entiteta je samo za branje
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(indexes = @Index(name = "idx_assethistory_asset", columnList = "assetId, id"))
+public class AssetHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long assetId;
+
+    @Column(nullable = false, length = 32)
+    private String changeType;
+
+    @Column(columnDefinition = "text")
+    private String details;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+}
@@ -13,10 +13,16 @@ import java.util.Objects;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Table(indexes = {
+        @Index(name = "idx_assetlink_source", columnList = "sourceAsset_id"),
+        @Index(name = "idx_assetlink_target", columnList = "targetAsset_id")
+})
 public class AssetLink {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_link_seq")
+    @SequenceGenerator(name = "asset_link_seq", sequenceName = "asset_link_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
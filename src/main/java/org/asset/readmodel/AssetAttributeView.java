@@ -0,0 +1,29 @@
+package org.asset.readmodel;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+// AssetAttribute v persistence unitu "read"
+@Getter
+@NoArgsConstructor
+@Entity(name = "AssetAttribute")
+@Immutable
+public class AssetAttributeView {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private String type;
+
+    private boolean required;
+
+    private String minValue;
+
+    private String maxValue;
+
+}
@@ -0,0 +1,27 @@
+package org.asset.readmodel;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+// AssetLink v persistence unitu "read"; poizvedbe berejo samo id-je koncev, zato sta povezavi leni
+@Getter
+@NoArgsConstructor
+@Entity(name = "AssetLink")
+@Immutable
+public class AssetLinkView {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private AssetView sourceAsset;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private AssetView targetAsset;
+
+}
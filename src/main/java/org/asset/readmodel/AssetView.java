@@ -0,0 +1,32 @@
+package org.asset.readmodel;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/*
+ * Asset v persistence unitu "read" (replika). Panache entitete ne smejo biti v dveh enotah, zato ima bralna enota
+ * svoje razrede z istimi imeni entitet in tabel: JPQL iz AssetQueryRepository deluje v obeh brez sprememb.
+ */
+@Getter
+@NoArgsConstructor
+@Entity(name = "Asset")
+@Immutable
+public class AssetView {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private Long version;
+
+    @ManyToMany
+    @OrderBy("id")
+    private Set<AssetAttributeView> attributes = new LinkedHashSet<>();
+
+}
@@ -0,0 +1,45 @@
+package org.asset.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.asset.dto.AssetHistoryDto;
+import org.asset.model.AssetHistory;
+
+import java.time.Instant;
+import java.util.List;
+
+@ApplicationScoped
+public class AssetHistoryRepository implements PanacheRepository<AssetHistory> {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    // Keyset po id-ju prek indeksa (assetId, id); details se razčleni enkrat tukaj, da ga zna zapisati vsak format
+    public List<AssetHistoryDto> findPage(Long assetId, Long after, int limit) {
+        return getEntityManager().createQuery(
+                        "SELECT h.id, h.changeType, h.details, h.changedAt " +
+                                "FROM AssetHistory h WHERE h.assetId = :assetId AND h.id > :after ORDER BY h.id", Object[].class)
+                .setParameter("assetId", assetId)
+                .setParameter("after", after == null ? 0L : after)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(row -> new AssetHistoryDto((Long) row[0], (String) row[1], parseDetails((String) row[2]), (Instant) row[3]))
+                .toList();
+    }
+
+    private JsonNode parseDetails(String details) {
+        if (details == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(details);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -5,6 +5,18 @@ import jakarta.enterprise.context.ApplicationScoped;
 import org.asset.model.Asset;
 import org.asset.model.AssetLink;
 
+import java.util.List;
+
 @ApplicationScoped
 public class AssetLinkRepository  implements PanacheRepository<AssetLink> {
+
+    // En DELETE stavek na vsakih IN_BATCH_SIZE id-jev
+    public long deleteByIds(List<Long> ids) {
+        long deleted = 0;
+        for (List<Long> batch : AssetQueryRepository.partition(ids)) {
+            deleted += delete("id IN ?1", batch);
+        }
+        return deleted;
+    }
+
 }
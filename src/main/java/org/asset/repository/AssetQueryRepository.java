@@ -0,0 +1,322 @@
+package org.asset.repository;
+
+import io.quarkus.hibernate.orm.PersistenceUnit;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetField;
+import org.asset.dto.AssetLinkDto;
+import org.asset.dto.AssetSearchCriteria;
+import org.asset.dto.ConnectedAssetDto;
+import org.asset.service.ReadRouting;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Bralni sloj: AssetDto-je sestavi z omejenim številom poizvedb, brez nalaganja entitet
+@ApplicationScoped
+public class AssetQueryRepository {
+
+    static final int IN_BATCH_SIZE = 1000;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    @PersistenceUnit("read")
+    EntityManager readEntityManager;
+
+    @Inject
+    ReadRouting readRouting;
+
+    // Poizvedbe le za izbrane kolekcije; neizbrane ostanejo null in se ne serializirajo
+    public AssetDto findById(Long id, Set<AssetField> fields) {
+        List<AssetDto> assets = entityManager().createQuery(
+                        "SELECT new org.asset.dto.AssetDto(a.id, a.title) FROM Asset a WHERE a.id = :id", AssetDto.class)
+                .setParameter("id", id)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+        if (assets.isEmpty()) {
+            return null;
+        }
+        // Branja posameznega asseta se ponavljajo, zato gredo prek query cache-a
+        fillCollections(indexById(assets), fields, true);
+        return assets.get(0);
+    }
+
+    // Več assetov po id-jih: tri poizvedbe na vsakih IN_BATCH_SIZE id-jev, vrstni red ni določen
+    public List<AssetDto> findByIds(List<Long> ids) {
+        List<AssetDto> assets = new ArrayList<>();
+        for (List<Long> batch : partition(ids)) {
+            assets.addAll(entityManager().createQuery(
+                            "SELECT new org.asset.dto.AssetDto(a.id, a.title) FROM Asset a WHERE a.id IN :ids", AssetDto.class)
+                    .setParameter("ids", batch)
+                    .getResultList());
+        }
+        fillCollections(assets);
+        return assets;
+    }
+
+    public boolean exists(Long id) {
+        return findVersion(id) != null;
+    }
+
+    // Brez query cache-a: prisilno povečane verzije (lock) časovnih žigov query cache-a ne osvežijo
+    public Long findVersion(Long id) {
+        List<Long> versions = entityManager().createQuery("SELECT a.version FROM Asset a WHERE a.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultList();
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    public List<AssetDto> findPage(Long after, int limit, Set<AssetField> fields) {
+        List<AssetDto> assets = entityManager().createQuery(
+                        "SELECT new org.asset.dto.AssetDto(a.id, a.title) FROM Asset a WHERE a.id > :after ORDER BY a.id", AssetDto.class)
+                .setParameter("after", after == null ? 0L : after)
+                .setMaxResults(limit)
+                .getResultList();
+        fillCollections(assets, fields);
+        return assets;
+    }
+
+    /*
+     * Iskanje s keyset paginacijo. Naslov se primerja z lower(title) LIKE, kar pokrije trigram indeks
+     * idx_asset_title_trgm; atributni filtri gredo v semi-join prek indeksa (name, type) na AssetAttribute.
+     */
+    public List<AssetDto> search(AssetSearchCriteria criteria, Long after, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new org.asset.dto.AssetDto(a.id, a.title) FROM Asset a WHERE a.id > :after");
+        if (criteria.getTitle() != null) {
+            jpql.append(" AND lower(a.title) LIKE :title ESCAPE '!'");
+        }
+        if (criteria.getTitlePrefix() != null) {
+            jpql.append(" AND lower(a.title) LIKE :titlePrefix ESCAPE '!'");
+        }
+        if (criteria.hasAttributeFilter()) {
+            jpql.append(" AND a.id IN (SELECT s.id FROM Asset s JOIN s.attributes attr WHERE 1 = 1");
+            if (criteria.getAttributeName() != null) {
+                jpql.append(" AND attr.name = :attributeName");
+            }
+            if (criteria.getAttributeType() != null) {
+                jpql.append(" AND attr.type = :attributeType");
+            }
+            if (criteria.getRequired() != null) {
+                jpql.append(" AND attr.required = :required");
+            }
+            jpql.append(")");
+        }
+        jpql.append(" ORDER BY a.id");
+
+        TypedQuery<AssetDto> query = entityManager().createQuery(jpql.toString(), AssetDto.class)
+                .setParameter("after", after == null ? 0L : after)
+                .setMaxResults(limit);
+        if (criteria.getTitle() != null) {
+            query.setParameter("title", "%" + escapeLike(criteria.getTitle().toLowerCase()) + "%");
+        }
+        if (criteria.getTitlePrefix() != null) {
+            query.setParameter("titlePrefix", escapeLike(criteria.getTitlePrefix().toLowerCase()) + "%");
+        }
+        if (criteria.getAttributeName() != null) {
+            query.setParameter("attributeName", criteria.getAttributeName());
+        }
+        if (criteria.getAttributeType() != null) {
+            query.setParameter("attributeType", criteria.getAttributeType());
+        }
+        if (criteria.getRequired() != null) {
+            query.setParameter("required", criteria.getRequired());
+        }
+
+        List<AssetDto> assets = query.getResultList();
+        fillCollections(assets);
+        return assets;
+    }
+
+    // Samo id in naslov; kolekcije klicatelj napolni po kosih s fillCollections
+    public Stream<AssetDto> streamAll(int fetchSize) {
+        return entityManager().createQuery(
+                        "SELECT new org.asset.dto.AssetDto(a.id, a.title) FROM Asset a ORDER BY a.id", AssetDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    public Stream<AssetDto> streamByIds(List<Long> ids, int fetchSize) {
+        return partition(ids).stream()
+                .flatMap(batch -> entityManager().createQuery(
+                                "SELECT new org.asset.dto.AssetDto(a.id, a.title) FROM Asset a WHERE a.id IN :ids ORDER BY a.id", AssetDto.class)
+                        .setParameter("ids", batch)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                        .getResultStream());
+    }
+
+    // Sosedje podanih assetov v eni smeri; ena poizvedba na vsakih IN_BATCH_SIZE id-jev
+    public List<Long> findTargetIds(List<Long> sourceIds) {
+        return findNeighbourIds(sourceIds,
+                "SELECT DISTINCT l.targetAsset.id FROM AssetLink l WHERE l.sourceAsset.id IN :ids");
+    }
+
+    public List<Long> findSourceIds(List<Long> targetIds) {
+        return findNeighbourIds(targetIds,
+                "SELECT DISTINCT l.sourceAsset.id FROM AssetLink l WHERE l.targetAsset.id IN :ids");
+    }
+
+    public List<AssetLinkDto> findLinks(List<Long> ids) {
+        List<AssetLinkDto> links = new ArrayList<>();
+        for (List<Long> batch : partition(ids)) {
+            links.addAll(entityManager().createQuery(
+                            "SELECT new org.asset.dto.AssetLinkDto(l.id, l.sourceAsset.id, l.targetAsset.id) FROM AssetLink l WHERE l.id IN :ids", AssetLinkDto.class)
+                    .setParameter("ids", batch)
+                    .getResultList());
+        }
+        return links;
+    }
+
+    public List<ConnectedAssetDto> findConnectedAssets(List<Long> ids) {
+        List<ConnectedAssetDto> assets = new ArrayList<>();
+        for (List<Long> batch : partition(ids)) {
+            assets.addAll(entityManager().createQuery(
+                            "SELECT new org.asset.dto.ConnectedAssetDto(a.id, a.title) FROM Asset a WHERE a.id IN :ids", ConnectedAssetDto.class)
+                    .setParameter("ids", batch)
+                    .getResultList());
+        }
+        return assets;
+    }
+
+    // Atributi enega asseta; ponavljajoča se branja gredo prek query cache-a kot pri findById
+    public List<AssetAttributeDto> findAttributes(Long assetId) {
+        AssetDto asset = new AssetDto(assetId, null);
+        fillAttributes(Map.of(assetId, asset), true);
+        return asset.getAttributes();
+    }
+
+    // Atributi in povezave za vse podane assete: dve poizvedbe na vsakih IN_BATCH_SIZE assetov
+    public void fillCollections(List<AssetDto> assets) {
+        fillCollections(assets, EnumSet.allOf(AssetField.class));
+    }
+
+    public void fillCollections(List<AssetDto> assets, Set<AssetField> fields) {
+        for (List<AssetDto> batch : partition(assets)) {
+            fillCollections(indexById(batch), fields, false);
+        }
+    }
+
+    public void fillAttributes(List<AssetDto> assets) {
+        for (List<AssetDto> batch : partition(assets)) {
+            fillAttributes(indexById(batch), false);
+        }
+    }
+
+    private List<Long> findNeighbourIds(List<Long> ids, String query) {
+        List<Long> neighbours = new ArrayList<>();
+        for (List<Long> batch : partition(ids)) {
+            neighbours.addAll(entityManager().createQuery(query, Long.class)
+                    .setParameter("ids", batch)
+                    .getResultList());
+        }
+        return neighbours;
+    }
+
+    // Bralna replika, kadar jo je za trenutno @ReadOnly metodo izbral ReadRouting; sicer primarna baza
+    private EntityManager entityManager() {
+        return readRouting.useReplica() ? readEntityManager : entityManager;
+    }
+
+    static <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += IN_BATCH_SIZE) {
+            batches.add(items.subList(from, Math.min(from + IN_BATCH_SIZE, items.size())));
+        }
+        return batches;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private Map<Long, AssetDto> indexById(List<AssetDto> assets) {
+        Map<Long, AssetDto> byId = new LinkedHashMap<>();
+        for (AssetDto asset : assets) {
+            byId.put(asset.getId(), asset);
+        }
+        return byId;
+    }
+
+    private void fillCollections(Map<Long, AssetDto> byId, Set<AssetField> fields, boolean cacheable) {
+        if (fields.contains(AssetField.ATTRIBUTES)) {
+            fillAttributes(byId, cacheable);
+        }
+        if (AssetField.includesLinks(fields)) {
+            fillLinks(byId, fields, cacheable);
+        }
+        for (AssetDto asset : byId.values()) {
+            if (!fields.contains(AssetField.ATTRIBUTES)) {
+                asset.setAttributes(null);
+            }
+            if (!fields.contains(AssetField.OUTGOING_LINKS)) {
+                asset.setOutgoingLinks(null);
+            }
+            if (!fields.contains(AssetField.INCOMING_LINKS)) {
+                asset.setIncomingLinks(null);
+            }
+        }
+    }
+
+    private void fillAttributes(Map<Long, AssetDto> byId, boolean cacheable) {
+        List<Object[]> rows = entityManager().createQuery(
+                        "SELECT a.id, attr.name, attr.type, attr.required, attr.minValue, attr.maxValue " +
+                                "FROM Asset a JOIN a.attributes attr WHERE a.id IN :ids ORDER BY attr.id", Object[].class)
+                .setParameter("ids", byId.keySet())
+                .setHint(HibernateHints.HINT_CACHEABLE, cacheable)
+                .getResultList();
+        for (Object[] row : rows) {
+            AssetAttributeDto attributeDto = new AssetAttributeDto();
+            attributeDto.setName((String) row[1]);
+            attributeDto.setType((String) row[2]);
+            attributeDto.setRequired((Boolean) row[3]);
+            attributeDto.setMinValue((String) row[4]);
+            attributeDto.setMaxValue((String) row[5]);
+            byId.get((Long) row[0]).getAttributes().add(attributeDto);
+        }
+    }
+
+    // Pogoj WHERE pokrije le izbrane smeri, da poizvedba ne bere povezav, ki jih odgovor ne vsebuje
+    private void fillLinks(Map<Long, AssetDto> byId, Set<AssetField> fields, boolean cacheable) {
+        boolean outgoing = fields.contains(AssetField.OUTGOING_LINKS);
+        boolean incoming = fields.contains(AssetField.INCOMING_LINKS);
+        String where;
+        if (outgoing && incoming) {
+            where = "l.sourceAsset.id IN :ids OR l.targetAsset.id IN :ids";
+        } else if (outgoing) {
+            where = "l.sourceAsset.id IN :ids";
+        } else {
+            where = "l.targetAsset.id IN :ids";
+        }
+        Collection<Long> ids = byId.keySet();
+        List<AssetLinkDto> links = entityManager().createQuery(
+                        "SELECT new org.asset.dto.AssetLinkDto(l.id, l.sourceAsset.id, l.targetAsset.id) " +
+                                "FROM AssetLink l WHERE " + where + " ORDER BY l.id", AssetLinkDto.class)
+                .setParameter("ids", ids)
+                .setHint(HibernateHints.HINT_CACHEABLE, cacheable)
+                .getResultList();
+        for (AssetLinkDto link : links) {
+            AssetDto source = byId.get(link.getSourceAssetId());
+            if (outgoing && source != null) {
+                source.getOutgoingLinks().add(link);
+            }
+            AssetDto target = byId.get(link.getTargetAssetId());
+            if (incoming && target != null) {
+                target.getIncomingLinks().add(link);
+            }
+        }
+    }
+
+}
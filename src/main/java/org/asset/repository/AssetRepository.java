@@ -5,6 +5,13 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import org.asset.model.Asset;
 import org.asset.model.AssetAttribute;
+import org.hibernate.query.NativeQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @ApplicationScoped
 public class AssetRepository  implements PanacheRepository<Asset> {
@@ -15,4 +22,40 @@ public class AssetRepository  implements PanacheRepository<Asset> {
         getEntityManager().merge(asset);
     }
 
+    // findById gre prek second-level cache-a, zato je pri vročih assetih cenejši od COUNT poizvedbe
+    public boolean exists(Long id) {
+        return findById(id) != null;
+    }
+
+    // Kateri od podanih id-jev obstajajo; ena IN poizvedba na vsakih IN_BATCH_SIZE id-jev
+    public Set<Long> findExistingIds(Set<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        for (List<Long> batch : AssetQueryRepository.partition(new ArrayList<>(ids))) {
+            existing.addAll(getEntityManager()
+                    .createQuery("SELECT a.id FROM Asset a WHERE a.id IN :ids", Long.class)
+                    .setParameter("ids", batch)
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    /*
+     * Poveča verzijo podanim assetom z enim UPDATE stavkom na vsakih IN_BATCH_SIZE id-jev, brez nalaganja entitet.
+     * Prazen query space: brez njega Hibernate po bulk stavku izprazni celotno regijo Asset v second-level cache-u;
+     * posamezne vrstice po commitu izloči AssetService.evictIncrementedVersions. Entitete, ki so že v persistence
+     * contextu, obdržijo staro verzijo; klicatelj jih v isti transakciji ne sme več spreminjati.
+     */
+    public int incrementVersions(Collection<Long> ids) {
+        int updated = 0;
+        for (List<Long> batch : AssetQueryRepository.partition(new ArrayList<>(ids))) {
+            updated += getEntityManager()
+                    .createNativeQuery("UPDATE asset SET version = version + 1 WHERE id IN (:ids)")
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace("")
+                    .setParameter("ids", batch)
+                    .executeUpdate();
+        }
+        return updated;
+    }
+
 }
@@ -0,0 +1,22 @@
+package org.asset.repository;
+
+import io.quarkus.flyway.FlywayConfigurationCustomizer;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+
+import java.util.Map;
+
+/*
+ * Flyway na PostgreSQL privzeto drži advisory lock v odprti transakciji. CREATE INDEX CONCURRENTLY
+ * (V3, V4) čaka, da se končajo vse transakcije, tudi ta, zato bi migracija obvisela.
+ * Z zaklepom na nivoju seje se sočasni zagoni instanc še vedno izključujejo.
+ */
+@ApplicationScoped
+public class FlywayLockCustomizer implements FlywayConfigurationCustomizer {
+
+    @Override
+    public void customize(FluentConfiguration configuration) {
+        configuration.configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+    }
+
+}
@@ -0,0 +1,356 @@
+package org.asset.repository;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetLinkDto;
+import org.asset.dto.ConnectedAssetDto;
+import org.asset.model.Asset;
+import org.asset.model.AssetAttribute;
+import org.asset.model.AssetLink;
+import org.asset.service.TraversalDirection;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Neblokirajoči dostop do istih tabel kot Hibernate entitete, prek reaktivnega PostgreSQL klienta.
+ * Vse metode sprejmejo SqlClient, da jih lahko kličemo na poolu ali znotraj transakcije (SqlConnection).
+ * Id-ji prihajajo iz istih sekvenc kot pri Hibernate (pooled optimizer, korak 50), zato se ne prekrivajo.
+ */
+@ApplicationScoped
+public class ReactiveAssetRepository {
+
+    public Uni<List<AssetDto>> findPage(SqlClient client, Long after, int limit) {
+        return client.preparedQuery("SELECT id, title FROM asset WHERE id > $1 ORDER BY id LIMIT $2")
+                .execute(Tuple.of(after == null ? Long.MIN_VALUE : after, limit))
+                .map(ReactiveAssetRepository::toAssets);
+    }
+
+    public Uni<AssetDto> findById(SqlClient client, Long id) {
+        return client.preparedQuery("SELECT id, title FROM asset WHERE id = $1")
+                .execute(Tuple.of(id))
+                .map(rows -> {
+                    List<AssetDto> assets = toAssets(rows);
+                    return assets.isEmpty() ? null : assets.get(0);
+                });
+    }
+
+    // Zaklene vrstico asseta do konca transakcije, da se sočasne spremembe istega asseta ne prepletajo
+    public Uni<Boolean> lockById(SqlClient client, Long id) {
+        return client.preparedQuery("SELECT id FROM asset WHERE id = $1 FOR UPDATE")
+                .execute(Tuple.of(id))
+                .map(rows -> rows.size() > 0);
+    }
+
+    public Uni<Set<Long>> findExistingIds(SqlClient client, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(new HashSet<>());
+        }
+        return client.preparedQuery("SELECT id FROM asset WHERE id = ANY($1)")
+                .execute(Tuple.of(ids.toArray(new Long[0])))
+                .map(rows -> {
+                    Set<Long> existing = new HashSet<>();
+                    for (Row row : rows) {
+                        existing.add(row.getLong("id"));
+                    }
+                    return existing;
+                });
+    }
+
+    // Napolni atribute in povezave za cel seznam z dvema poizvedbama
+    public Uni<List<AssetDto>> fillCollections(SqlClient client, List<AssetDto> assets) {
+        if (assets.isEmpty()) {
+            return Uni.createFrom().item(assets);
+        }
+        Map<Long, AssetDto> byId = new LinkedHashMap<>();
+        for (AssetDto assetDto : assets) {
+            byId.put(assetDto.getId(), assetDto);
+        }
+        Long[] ids = byId.keySet().toArray(new Long[0]);
+
+        Uni<RowSet<Row>> attributes = client.preparedQuery(
+                        "SELECT aa.asset_id, a.name, a.type, a.required, a.minvalue, a.maxvalue " +
+                                "FROM asset_assetattribute aa JOIN assetattribute a ON a.id = aa.attributes_id " +
+                                "WHERE aa.asset_id = ANY($1) ORDER BY a.id")
+                .execute(Tuple.of(ids));
+        Uni<RowSet<Row>> links = client.preparedQuery(
+                        "SELECT id, sourceasset_id, targetasset_id FROM assetlink " +
+                                "WHERE sourceasset_id = ANY($1) OR targetasset_id = ANY($1) ORDER BY id")
+                .execute(Tuple.of(ids));
+
+        return attributes.flatMap(attributeRows -> links.map(linkRows -> {
+            for (Row row : attributeRows) {
+                byId.get(row.getLong("asset_id")).getAttributes().add(toAttribute(row));
+            }
+            for (Row row : linkRows) {
+                AssetLinkDto linkDto = toLink(row);
+                AssetDto source = byId.get(linkDto.getSourceAssetId());
+                if (source != null) {
+                    source.getOutgoingLinks().add(linkDto);
+                }
+                AssetDto target = byId.get(linkDto.getTargetAssetId());
+                if (target != null) {
+                    target.getIncomingLinks().add(linkDto);
+                }
+            }
+            return assets;
+        }));
+    }
+
+    public Uni<List<AssetAttributeDto>> findAttributes(SqlClient client, Long assetId) {
+        return client.preparedQuery(
+                        "SELECT a.name, a.type, a.required, a.minvalue, a.maxvalue " +
+                                "FROM asset_assetattribute aa JOIN assetattribute a ON a.id = aa.attributes_id " +
+                                "WHERE aa.asset_id = $1 ORDER BY a.id")
+                .execute(Tuple.of(assetId))
+                .map(rows -> {
+                    List<AssetAttributeDto> attributes = new ArrayList<>();
+                    for (Row row : rows) {
+                        attributes.add(toAttribute(row));
+                    }
+                    return attributes;
+                });
+    }
+
+    // Atributi z id-ji, za primerjavo pri posodobitvi
+    public Uni<List<AssetAttribute>> findAttributeEntities(SqlClient client, Long assetId) {
+        return client.preparedQuery(
+                        "SELECT a.id, a.name, a.type, a.required, a.minvalue, a.maxvalue " +
+                                "FROM asset_assetattribute aa JOIN assetattribute a ON a.id = aa.attributes_id " +
+                                "WHERE aa.asset_id = $1 ORDER BY a.id")
+                .execute(Tuple.of(assetId))
+                .map(rows -> {
+                    List<AssetAttribute> attributes = new ArrayList<>();
+                    for (Row row : rows) {
+                        attributes.add(new AssetAttribute(row.getLong("id"), row.getString("name"), row.getString("type"),
+                                row.getBoolean("required"), row.getString("minvalue"), row.getString("maxvalue")));
+                    }
+                    return attributes;
+                });
+    }
+
+    // Povezave kot nepovezane entitete, da jih lahko primerja AssetLinkDiff
+    public Uni<List<AssetLink>> findLinkEntities(SqlClient client, Long assetId, boolean outgoing) {
+        String column = outgoing ? "sourceasset_id" : "targetasset_id";
+        return client.preparedQuery("SELECT id, sourceasset_id, targetasset_id FROM assetlink WHERE " + column + " = $1 ORDER BY id")
+                .execute(Tuple.of(assetId))
+                .map(rows -> {
+                    List<AssetLink> links = new ArrayList<>();
+                    for (Row row : rows) {
+                        AssetLink link = new AssetLink();
+                        link.setId(row.getLong("id"));
+                        link.setSourceAsset(assetStub(row.getLong("sourceasset_id")));
+                        link.setTargetAsset(assetStub(row.getLong("targetasset_id")));
+                        links.add(link);
+                    }
+                    return links;
+                });
+    }
+
+    public Uni<List<AssetLinkDto>> findLinks(SqlClient client, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(new ArrayList<>());
+        }
+        return client.preparedQuery("SELECT id, sourceasset_id, targetasset_id FROM assetlink WHERE id = ANY($1) ORDER BY id")
+                .execute(Tuple.of(ids.toArray(new Long[0])))
+                .map(rows -> {
+                    List<AssetLinkDto> links = new ArrayList<>();
+                    for (Row row : rows) {
+                        links.add(toLink(row));
+                    }
+                    return links;
+                });
+    }
+
+    public Uni<Long> insertAsset(SqlClient client, String title) {
+        return client.preparedQuery("INSERT INTO asset (id, title) VALUES (nextval('asset_seq'), $1) RETURNING id")
+                .execute(Tuple.of(title))
+                .map(rows -> rows.iterator().next().getLong("id"));
+    }
+
+    // Vrne prejšnji naslov (za zgodovino); vrstica je že zaklenjena s FOR UPDATE, zato ga nihče vmes ne spremeni
+    public Uni<String> updateTitle(SqlClient client, Long id, String title) {
+        return client.preparedQuery(
+                        "UPDATE asset a SET title = $2 FROM (SELECT id, title FROM asset WHERE id = $1) old " +
+                                "WHERE a.id = old.id RETURNING old.title")
+                .execute(Tuple.of(id, title))
+                .map(rows -> rows.size() == 0 ? null : rows.iterator().next().getString("title"));
+    }
+
+    // Enako kot @Version v Asset: vsaka sprememba asseta ali njegovih povezav poveča verzijo
+    public Uni<Integer> incrementVersions(SqlClient client, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(0);
+        }
+        return client.preparedQuery("UPDATE asset SET version = version + 1 WHERE id = ANY($1)")
+                .execute(Tuple.of(ids.toArray(new Long[0])))
+                .map(RowSet::rowCount);
+    }
+
+    // Vstavi atribute in jih doda assetu; en batch za atribute in en za vezno tabelo
+    public Uni<Void> insertAttributes(SqlClient client, Long assetId, List<AssetAttributeDto> attributes) {
+        if (attributes.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        List<Tuple> batch = new ArrayList<>(attributes.size());
+        for (AssetAttributeDto attribute : attributes) {
+            batch.add(Tuple.of(attribute.getName(), attribute.getType(), attribute.isRequired(),
+                    attribute.getMinValue(), attribute.getMaxValue()));
+        }
+        return client.preparedQuery(
+                        "INSERT INTO assetattribute (id, name, type, required, minvalue, maxvalue) " +
+                                "VALUES (nextval('asset_attribute_seq'), $1, $2, $3, $4, $5) RETURNING id")
+                .executeBatch(batch)
+                .flatMap(rows -> {
+                    List<Tuple> joins = new ArrayList<>(attributes.size());
+                    for (RowSet<Row> result = rows; result != null; result = result.next()) {
+                        joins.add(Tuple.of(assetId, result.iterator().next().getLong("id")));
+                    }
+                    return client.preparedQuery("INSERT INTO asset_assetattribute (asset_id, attributes_id) VALUES ($1, $2)")
+                            .executeBatch(joins);
+                })
+                .replaceWithVoid();
+    }
+
+    public Uni<Integer> removeAttributes(SqlClient client, Long assetId, List<Long> attributeIds) {
+        if (attributeIds.isEmpty()) {
+            return Uni.createFrom().item(0);
+        }
+        return client.preparedQuery("DELETE FROM asset_assetattribute WHERE asset_id = $1 AND attributes_id = ANY($2)")
+                .execute(Tuple.of(assetId, attributeIds.toArray(new Long[0])))
+                .map(RowSet::rowCount);
+    }
+
+    // Vrne odstranjene atribute
+    public Uni<List<AssetAttributeDto>> removeAttributesByName(SqlClient client, Long assetId, List<String> names) {
+        if (names.isEmpty()) {
+            return Uni.createFrom().item(new ArrayList<>());
+        }
+        return client.preparedQuery(
+                        "DELETE FROM asset_assetattribute aa USING assetattribute a " +
+                                "WHERE aa.attributes_id = a.id AND aa.asset_id = $1 AND a.name = ANY($2) " +
+                                "RETURNING a.name, a.type, a.required, a.minvalue, a.maxvalue")
+                .execute(Tuple.of(assetId, names.toArray(new String[0])))
+                .map(rows -> {
+                    List<AssetAttributeDto> removed = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        removed.add(toAttribute(row));
+                    }
+                    return removed;
+                });
+    }
+
+    // Vrne povezave z dodeljenimi id-ji, v istem vrstnem redu
+    public Uni<List<AssetLinkDto>> insertLinks(SqlClient client, List<AssetLinkDto> links) {
+        if (links.isEmpty()) {
+            return Uni.createFrom().item(new ArrayList<>());
+        }
+        List<Tuple> batch = new ArrayList<>(links.size());
+        for (AssetLinkDto linkDto : links) {
+            batch.add(Tuple.of(linkDto.getSourceAssetId(), linkDto.getTargetAssetId()));
+        }
+        return client.preparedQuery(
+                        "INSERT INTO assetlink (id, sourceasset_id, targetasset_id) " +
+                                "VALUES (nextval('asset_link_seq'), $1, $2) RETURNING id, sourceasset_id, targetasset_id")
+                .executeBatch(batch)
+                .map(rows -> {
+                    List<AssetLinkDto> created = new ArrayList<>(links.size());
+                    for (RowSet<Row> result = rows; result != null; result = result.next()) {
+                        created.add(toLink(result.iterator().next()));
+                    }
+                    return created;
+                });
+    }
+
+    public Uni<Integer> deleteLinks(SqlClient client, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(0);
+        }
+        return client.preparedQuery("DELETE FROM assetlink WHERE id = ANY($1)")
+                .execute(Tuple.of(ids.toArray(new Long[0])))
+                .map(RowSet::rowCount);
+    }
+
+    /*
+     * Iskanje povezanih assetov z rekurzivno poizvedbo, kadar indeks grafa ni na voljo.
+     * Vrne najkrajšo razdaljo do vsakega dosegljivega asseta.
+     */
+    public Uni<Map<Long, Integer>> traverse(SqlClient client, Long assetId, int maxDepth, TraversalDirection direction, int maxNodes) {
+        String step;
+        if (direction == TraversalDirection.OUT) {
+            step = "SELECT l.targetasset_id, r.distance + 1 FROM reach r JOIN assetlink l ON l.sourceasset_id = r.id";
+        } else if (direction == TraversalDirection.IN) {
+            step = "SELECT l.sourceasset_id, r.distance + 1 FROM reach r JOIN assetlink l ON l.targetasset_id = r.id";
+        } else {
+            step = "SELECT CASE WHEN l.sourceasset_id = r.id THEN l.targetasset_id ELSE l.sourceasset_id END, r.distance + 1 " +
+                    "FROM reach r JOIN assetlink l ON l.sourceasset_id = r.id OR l.targetasset_id = r.id";
+        }
+        String sql = "WITH RECURSIVE reach(id, distance) AS (" +
+                "SELECT $1::bigint, 0 UNION " + step + " WHERE r.distance < $2) " +
+                "SELECT id, MIN(distance) AS distance FROM reach WHERE id <> $1 " +
+                "GROUP BY id ORDER BY MIN(distance), id LIMIT $3";
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(assetId, maxDepth, (long) maxNodes))
+                .map(rows -> {
+                    Map<Long, Integer> distances = new LinkedHashMap<>();
+                    for (Row row : rows) {
+                        distances.put(row.getLong("id"), row.getInteger("distance"));
+                    }
+                    return distances;
+                });
+    }
+
+    public Uni<List<ConnectedAssetDto>> findConnectedAssets(SqlClient client, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(new ArrayList<>());
+        }
+        return client.preparedQuery("SELECT id, title FROM asset WHERE id = ANY($1)")
+                .execute(Tuple.of(ids.toArray(new Long[0])))
+                .map(rows -> {
+                    List<ConnectedAssetDto> connectedAssets = new ArrayList<>();
+                    for (Row row : rows) {
+                        connectedAssets.add(new ConnectedAssetDto(row.getLong("id"), row.getString("title")));
+                    }
+                    return connectedAssets;
+                });
+    }
+
+    private static List<AssetDto> toAssets(RowSet<Row> rows) {
+        List<AssetDto> assets = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            assets.add(new AssetDto(row.getLong("id"), row.getString("title")));
+        }
+        return assets;
+    }
+
+    private static AssetAttributeDto toAttribute(Row row) {
+        AssetAttributeDto attributeDto = new AssetAttributeDto();
+        attributeDto.setName(row.getString("name"));
+        attributeDto.setType(row.getString("type"));
+        attributeDto.setRequired(row.getBoolean("required"));
+        attributeDto.setMinValue(row.getString("minvalue"));
+        attributeDto.setMaxValue(row.getString("maxvalue"));
+        return attributeDto;
+    }
+
+    private static AssetLinkDto toLink(Row row) {
+        return new AssetLinkDto(row.getLong("id"), row.getLong("sourceasset_id"), row.getLong("targetasset_id"));
+    }
+
+    private static Asset assetStub(Long id) {
+        Asset asset = new Asset();
+        asset.setId(id);
+        return asset;
+    }
+
+}
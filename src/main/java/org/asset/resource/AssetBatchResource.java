@@ -0,0 +1,42 @@
+package org.asset.resource;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.asset.dto.AssetBatchGetRequestDto;
+import org.asset.service.AssetService;
+
+import java.util.List;
+
+/*
+ * POST /assets:batchGet je na korenu zbirke, zato ne more biti pod @Path("/assets") (ta bi dodal poševnico).
+ * Namesto enega GET /assets/{id} na asset vrne vse zahtevane assete z nespremenljivim številom IN poizvedb.
+ */
+@Path("/assets:batchGet")
+public class AssetBatchResource {
+
+    @Inject
+    AssetService resourceService;
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    @RunOnVirtualThread
+    public Response batchGet(AssetBatchGetRequestDto batchRequest, @Context Request request) {
+        try {
+            List<Long> ids = batchRequest == null ? null : batchRequest.getIds();
+            return Response.ok(resourceService.getAssetsByIds(ids), BinaryFormatWriter.negotiate(request)).build();
+        } catch (BadRequestException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+}
@@ -1,11 +1,19 @@
 package org.asset.resource;
 
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -17,13 +25,22 @@ import org.asset.model.AssetLink;
 import org.asset.repository.AssetAttributeRepository;
 import org.asset.repository.AssetLinkRepository;
 import org.asset.repository.AssetRepository;
+import org.asset.service.AssetChangeFeed;
+import org.asset.service.AssetExportJobs;
+import org.asset.service.AssetFullExport;
+import org.asset.service.AssetImportService;
 import org.asset.service.AssetService;
 import org.asset.service.AuthenticationService;
+import org.asset.service.TraversalDirection;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Path("/assets")
@@ -35,92 +52,394 @@ public class AssetResource {
     @Inject
     AssetService resourceService;
 
+    @Inject
+    AssetImportService importService;
+
+    @Inject
+    AssetChangeFeed changeFeed;
+
+    @Inject
+    AssetExportJobs exportJobs;
+
+    @Inject
+    AssetFullExport fullExport;
+
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
-    public List<AssetDto> getAllAssets() {
-        return resourceService.getAllAssets();
+    @Produces({MediaType.APPLICATION_JSON, BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    @RunOnVirtualThread
+    public Response getAllAssets(@QueryParam("after") Long after,
+                                 @QueryParam("limit") Integer limit,
+                                 @QueryParam("stream") boolean stream,
+                                 @QueryParam("fields") String fields,
+                                 @Context UriInfo uriInfo,
+                                 @Context Request request) {
+        Set<AssetField> assetFields;
+        try {
+            assetFields = AssetField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, "Invalid field: " + e.getMessage());
+        }
+        if (stream) {
+            // Pretočni izpis je vedno JSON, ne glede na Accept
+            StreamingOutput output = resourceService::streamAllAssets;
+            return Response.ok(output, MediaType.APPLICATION_JSON_TYPE).build();
+        }
+
+        int pageLimit = resourceService.resolvePageLimit(limit);
+        List<AssetDto> assets = resourceService.getAllAssets(after, pageLimit, assetFields);
+        Response.ResponseBuilder response = Response.ok(assets, BinaryFormatWriter.negotiate(request));
+        if (assets.size() == pageLimit) {
+            Long nextAfter = assets.get(assets.size() - 1).getId();
+            response.link(uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("after", nextAfter)
+                    .replaceQueryParam("limit", pageLimit)
+                    .build(), "next");
+        }
+        return response.build();
+    }
+
+    @GET
+    @Path("/search")
+    @Produces({MediaType.APPLICATION_JSON, BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    @RunOnVirtualThread
+    public Response searchAssets(@QueryParam("title") String title,
+                                 @QueryParam("titlePrefix") String titlePrefix,
+                                 @QueryParam("attributeName") String attributeName,
+                                 @QueryParam("attributeType") String attributeType,
+                                 @QueryParam("required") Boolean required,
+                                 @QueryParam("after") Long after,
+                                 @QueryParam("limit") Integer limit,
+                                 @Context UriInfo uriInfo,
+                                 @Context Request request) {
+        AssetSearchCriteria criteria = new AssetSearchCriteria();
+        criteria.setTitle(title);
+        criteria.setTitlePrefix(titlePrefix);
+        criteria.setAttributeName(attributeName);
+        criteria.setAttributeType(attributeType);
+        criteria.setRequired(required);
+
+        int pageLimit = resourceService.resolvePageLimit(limit);
+        List<AssetDto> assets;
+        try {
+            assets = resourceService.searchAssets(criteria, after, pageLimit);
+        } catch (BadRequestException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
+        Response.ResponseBuilder response = Response.ok(assets, BinaryFormatWriter.negotiate(request));
+        if (assets.size() == pageLimit) {
+            Long nextAfter = assets.get(assets.size() - 1).getId();
+            response.link(uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("after", nextAfter)
+                    .replaceQueryParam("limit", pageLimit)
+                    .build(), "next");
+        }
+        return response.build();
+    }
+
+    // SSE: spremembe assetov po commitu; ob ponovni povezavi brskalnik sam pošlje Last-Event-ID
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamChanges(@Context SseEventSink sink,
+                              @Context Sse sse,
+                              @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId) {
+        changeFeed.subscribe(sink, sse, lastEventId);
     }
 
     @GET
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response getAssetById(@PathParam("id") Long id) {
+    @Produces({MediaType.APPLICATION_JSON, BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    @RunOnVirtualThread
+    public Response getAssetById(@PathParam("id") Long id,
+                                 @QueryParam("fields") String fields,
+                                 @Context Request request) {
+        Set<AssetField> assetFields;
         try {
-            AssetDto assetDto = resourceService.getAssetById(id);
-            return Response.ok(assetDto).build();
+            assetFields = AssetField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, "Invalid field: " + e.getMessage());
+        }
+        try {
+            // Verzija se prebere pred vsebino: ob sočasni spremembi je ETag kvečjemu starejši od telesa
+            MediaType mediaType = BinaryFormatWriter.negotiate(request);
+            EntityTag etag = etag(resourceService.getAssetVersion(id), assetFields, mediaType);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+            if (notModified != null) {
+                return notModified.build();
+            }
+            AssetDto assetDto = resourceService.getAssetById(id, assetFields);
+            return Response.ok(assetDto, mediaType).tag(etag).build();
         } catch (NotFoundException e) {
-            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
         }
     }
 
     @POST
-    @Transactional
     @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
     public Response createAsset(AssetDto assetDto) {
-        return resourceService.createAsset(assetDto);
+        Response response = resourceService.createAsset(assetDto);
+        AssetDto created = (AssetDto) response.getEntity();
+        return Response.fromResponse(response)
+                .tag(etag(created.getVersion(), EnumSet.allOf(AssetField.class), MediaType.APPLICATION_JSON_TYPE))
+                .build();
+    }
+
+    @POST
+    @Path("/import")
+    @Consumes("application/x-ndjson")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public Response importAssetsNdjson(InputStream input) {
+        try {
+            return Response.ok(importService.importNdjson(input)).build();
+        } catch (IOException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @POST
+    @Path("/import")
+    @Consumes("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public Response importAssetsExcel(InputStream input) {
+        try {
+            return Response.ok(importService.importExcel(input)).build();
+        } catch (IOException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @PUT
     @Path("/{id}")
-    @Transactional
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response updateAsset(@PathParam("id") Long id, AssetDto updatedAsset) {
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public Response updateAsset(@PathParam("id") Long id,
+                                AssetDto updatedAsset,
+                                @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            Asset asset = resourceService.updateAsset(id, updatedAsset);
-            return Response.ok(asset).build();
+            Long expectedVersion = null;
+            if (ifMatch != null) {
+                expectedVersion = resourceService.getCurrentAssetVersion(id);
+                if (!matchesVersion(ifMatch, expectedVersion)) {
+                    return Response.status(Response.Status.PRECONDITION_FAILED).build();
+                }
+            }
+            Asset asset = resourceService.updateAsset(id, updatedAsset, expectedVersion);
+            return Response.ok(asset)
+                    .tag(etag(asset.getVersion(), EnumSet.allOf(AssetField.class), MediaType.APPLICATION_JSON_TYPE))
+                    .build();
         } catch (NotFoundException e) {
-            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
+        } catch (ClientErrorException e) {
+            return BinaryFormatWriter.error(e.getResponse().getStatusInfo(), e.getMessage());
+        }
+    }
+
+    @POST
+    @Path("/links:batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public Response batchLinks(LinkBatchRequestDto request) {
+        return Response.ok(resourceService.batchLinks(request)).build();
+    }
+
+    @PATCH
+    @Path("/{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public Response patchAsset(@PathParam("id") Long id,
+                               AssetPatchDto patch,
+                               @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        try {
+            Long expectedVersion = null;
+            if (ifMatch != null) {
+                expectedVersion = resourceService.getCurrentAssetVersion(id);
+                if (!matchesVersion(ifMatch, expectedVersion)) {
+                    return Response.status(Response.Status.PRECONDITION_FAILED).build();
+                }
+            }
+            AssetDto assetDto = resourceService.patchAsset(id, patch, expectedVersion);
+            return Response.ok(assetDto)
+                    .tag(etag(assetDto.getVersion(), EnumSet.allOf(AssetField.class), MediaType.APPLICATION_JSON_TYPE))
+                    .build();
+        } catch (NotFoundException e) {
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
+        } catch (ClientErrorException e) {
+            return BinaryFormatWriter.error(e.getResponse().getStatusInfo(), e.getMessage());
         }
     }
 
     @POST
     @Path("/{id}/attributes")
-    @Transactional
     @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
     public Response addAssetAttribute(@PathParam("id") Long assetId, AssetAttributeDto attributeDto) {
         try {
             return resourceService.addAssetAttribute(assetId, attributeDto);
         } catch (NotFoundException e) {
-            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
         }
     }
 
-
     @GET
     @Path("/{id}/attributes")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response getAssetAttributes(@PathParam("id") Long assetId) {
+    @Produces({MediaType.APPLICATION_JSON, BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    @RunOnVirtualThread
+    public Response getAssetAttributes(@PathParam("id") Long assetId, @Context Request request) {
         try {
+            MediaType mediaType = BinaryFormatWriter.negotiate(request);
+            EntityTag etag = etag(resourceService.getAssetVersion(assetId), mediaType);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+            if (notModified != null) {
+                return notModified.build();
+            }
             List<AssetAttributeDto> attributeDtos = resourceService.getAssetAttributes(assetId);
-            return Response.ok(attributeDtos).build();
+            return Response.ok(attributeDtos, mediaType).tag(etag).build();
+        } catch (NotFoundException e) {
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/{id}/history")
+    @Produces({MediaType.APPLICATION_JSON, BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    @RunOnVirtualThread
+    public Response getAssetHistory(@PathParam("id") Long assetId,
+                                    @QueryParam("after") Long after,
+                                    @QueryParam("limit") Integer limit,
+                                    @Context UriInfo uriInfo,
+                                    @Context Request request) {
+        int pageLimit = resourceService.resolvePageLimit(limit);
+        List<AssetHistoryDto> history;
+        try {
+            history = resourceService.getAssetHistory(assetId, after, pageLimit);
         } catch (NotFoundException e) {
-            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
+        }
+        Response.ResponseBuilder response = Response.ok(history, BinaryFormatWriter.negotiate(request));
+        if (history.size() == pageLimit) {
+            Long nextAfter = history.get(history.size() - 1).getId();
+            response.link(uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("after", nextAfter)
+                    .replaceQueryParam("limit", pageLimit)
+                    .build(), "next");
         }
+        return response.build();
     }
 
     @GET
     @Path("/{id}/connected-assets")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response getConnectedAssets(@PathParam("id") Long assetId) {
+    @Produces({MediaType.APPLICATION_JSON, BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    @RunOnVirtualThread
+    public Response getConnectedAssets(@PathParam("id") Long assetId,
+                                       @QueryParam("depth") @DefaultValue("1") int depth,
+                                       @QueryParam("direction") String direction,
+                                       @QueryParam("limit") Integer limit,
+                                       @Context Request request) {
+        TraversalDirection traversalDirection;
         try {
-            List<ConnectedAssetDto> connectedAssets = resourceService.getConnectedAssets(assetId);
-            return Response.ok(connectedAssets).build();
+            traversalDirection = TraversalDirection.fromString(direction);
+        } catch (IllegalArgumentException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, "Invalid direction: " + direction);
+        }
+        try {
+            List<ConnectedAssetDto> connectedAssets = resourceService.getConnectedAssets(assetId, depth, traversalDirection, limit);
+            return Response.ok(connectedAssets, BinaryFormatWriter.negotiate(request)).build();
         } catch (NotFoundException e) {
-            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/export")
+    @Produces("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+    @RunOnVirtualThread
+    public Response exportAssetsToExcel(@QueryParam("ids") List<String> ids) {
+        List<Long> assetIds = new ArrayList<>();
+        try {
+            for (String param : ids) {
+                for (String id : param.split(",")) {
+                    if (!id.isBlank()) {
+                        assetIds.add(Long.valueOf(id.trim()));
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, "Invalid asset id: " + e.getMessage());
+        }
+
+        StreamingOutput output = out -> resourceService.exportAssetsToExcel(assetIds, out);
+        return Response.ok(output)
+                .header("Content-Disposition", "attachment; filename=\"assets.xlsx\"")
+                .build();
+    }
+
+    // Nočni izvoz celotnega inventarja; vrstice gredo iz kurzorja baze neposredno v odgovor
+    @GET
+    @Path("/export/full")
+    @Produces({"application/x-ndjson", "text/csv"})
+    @RunOnVirtualThread
+    public Response exportFullInventory(@QueryParam("format") String format) {
+        AssetFullExport.Format exportFormat;
+        try {
+            exportFormat = AssetFullExport.Format.fromString(format);
+        } catch (IllegalArgumentException e) {
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, "Invalid format: " + format);
         }
+        StreamingOutput output = out -> fullExport.export(exportFormat, out);
+        boolean csv = exportFormat == AssetFullExport.Format.CSV;
+        return Response.ok(output, csv ? "text/csv" : "application/x-ndjson")
+                .header("Content-Disposition", "attachment; filename=\"assets." + (csv ? "csv" : "ndjson") + "\"")
+                .build();
     }
 
     @GET
     @Path("/{id}/export")
     @Produces("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+    @RunOnVirtualThread
     public Response exportAssetToExcel(@PathParam("id") Long assetId) {
         try {
             return resourceService.exportAssetToExcel(assetId);
         } catch (NotFoundException e) {
-            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    // Asinhroni izvoz: 202 s stanjem opravila, datoteka se prenese prek ExportFileRoute
+    @POST
+    @Path("/{id}/export-jobs")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public Response submitExportJob(@PathParam("id") Long assetId) {
+        try {
+            ExportJobDto job = exportJobs.submit(assetId);
+            return Response.accepted(job)
+                    .location(URI.create("/assets/export-jobs/" + job.getId()))
+                    .build();
+        } catch (NotFoundException e) {
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage());
         }
     }
 
+    @GET
+    @Path("/export-jobs/{jobId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getExportJob(@PathParam("jobId") String jobId) {
+        ExportJobDto job = exportJobs.getJob(jobId);
+        if (job == null) {
+            return BinaryFormatWriter.error(Response.Status.NOT_FOUND, "Export job not found");
+        }
+        return Response.ok(job).build();
+    }
+
     @POST
     @Path("/login")
     @Produces(MediaType.APPLICATION_JSON)
@@ -130,7 +449,7 @@ public class AssetResource {
             String token = authenticationService.login(loginRequest.getEmail(), loginRequest.getPassword());
             return Response.ok(new AuthResponse(token)).build();
         } catch (SecurityException e) {
-            return Response.status(Response.Status.UNAUTHORIZED).entity(e.getMessage()).build();
+            return BinaryFormatWriter.error(Response.Status.UNAUTHORIZED, e.getMessage());
         }
     }
 
@@ -143,8 +462,42 @@ public class AssetResource {
             authenticationService.registerUser(registerRequest.getEmail(), registerRequest.getPassword());
             return Response.ok("Registracija je uspela.").build();
         } catch (Exception e) {
-            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            return BinaryFormatWriter.error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /*
+     * Močan ETag za točno to predstavitev: verzija asseta, izbrane kolekcije (fields=) in format. Ista verzija v
+     * drugem formatu ali z drugimi polji ima drugačne bajte, zato tudi drugo oznako; pripono za gzip doda
+     * CompressionInterceptor.
+     */
+    private static EntityTag etag(long version, Set<AssetField> fields, MediaType mediaType) {
+        return new EntityTag(version + "-" + AssetField.mask(fields) + "-" + mediaType.getSubtype());
+    }
+
+    private static EntityTag etag(long version, MediaType mediaType) {
+        return new EntityTag(version + "-" + mediaType.getSubtype());
+    }
+
+    // If-Match primerja le verzijo pred prvim '-': za pogojno spremembo je pomembno, ali se je asset spremenil,
+    // ne v kateri predstavitvi ga je odjemalec prebral. Šibke oznake se po RFC 9110 pri If-Match ne ujemajo.
+    static boolean matchesVersion(String ifMatch, long version) {
+        String expected = String.valueOf(version);
+        for (String value : ifMatch.split(",")) {
+            String tag = value.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                continue;
+            }
+            tag = tag.substring(1, tag.length() - 1);
+            int dash = tag.indexOf('-');
+            if ((dash < 0 ? tag : tag.substring(0, dash)).equals(expected)) {
+                return true;
+            }
         }
+        return false;
     }
 
 }
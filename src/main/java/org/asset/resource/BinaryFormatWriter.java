@@ -0,0 +1,107 @@
+package org.asset.resource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.Variant;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/*
+ * Binarni zapis istih DTO-jev kot JSON, izbran z Accept glavo: CBOR ali Smile.
+ * Smile si ponovljena imena polj in kratke nize (imena in tipi atributov) zapomni in jih nato zapisuje kot reference.
+ */
+@Provider
+@Produces({BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+public class BinaryFormatWriter implements MessageBodyWriter<Object> {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    private static final List<Variant> VARIANTS = Variant.mediaTypes(MediaType.APPLICATION_JSON_TYPE,
+            MediaType.valueOf(APPLICATION_CBOR), MediaType.valueOf(APPLICATION_SMILE)).build();
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private ObjectMapper cborMapper;
+
+    private ObjectMapper smileMapper;
+
+    @PostConstruct
+    void init() {
+        cborMapper = binaryMapper(objectMapper, APPLICATION_CBOR);
+        smileMapper = binaryMapper(objectMapper, APPLICATION_SMILE);
+    }
+
+    // Ista konfiguracija in moduli kot JSON ObjectMapper, le z drugo tovarno generatorjev
+    public static ObjectMapper binaryMapper(ObjectMapper jsonMapper, String mediaType) {
+        ObjectMapper mapper = switch (mediaType) {
+            case APPLICATION_CBOR -> jsonMapper.copyWith(new CBORFactory());
+            case APPLICATION_SMILE -> jsonMapper.copyWith(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build());
+            default -> throw new IllegalArgumentException("Unsupported binary format: " + mediaType);
+        };
+        return mapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /*
+     * Tip odgovora po Accept za endpointe z več @Produces. RESTEasy Reactive za Response brez tipa
+     * writerju in interceptorjem ne poda izbranega tipa, zato ga endpoint nastavi sam.
+     */
+    public static MediaType negotiate(Request request) {
+        Variant variant = request.selectVariant(VARIANTS);
+        return variant == null ? MediaType.APPLICATION_JSON_TYPE : variant.getMediaType();
+    }
+
+    // Sporočilo napake je navaden tekst; z izbranim tipom bi odjemalec surove bajte bral kot CBOR ali Smile
+    public static Response error(Response.StatusType status, String message) {
+        return Response.status(status).entity(message).type(MediaType.TEXT_PLAIN_TYPE).build();
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return mapper(mediaType) != null
+                && !String.class.equals(type)
+                && !byte[].class.equals(type)
+                && !StreamingOutput.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        ObjectMapper mapper = mapper(mediaType);
+        mapper.writerFor(mapper.constructType(genericType)).writeValue(entityStream, value);
+    }
+
+    private ObjectMapper mapper(MediaType mediaType) {
+        if (mediaType == null) {
+            return null;
+        }
+        String subtype = mediaType.getType() + "/" + mediaType.getSubtype();
+        return switch (subtype) {
+            case APPLICATION_CBOR -> cborMapper;
+            case APPLICATION_SMILE -> smileMapper;
+            default -> null;
+        };
+    }
+
+}
@@ -0,0 +1,240 @@
+package org.asset.resource;
+
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Gzip za JSON, CBOR in Smile odgovore, a šele nad pragom velikosti: do praga se telo zbira v pomnilniku,
+ * manjši odgovori gredo nestisnjeni, ker bi glava in CPU stiskanja odtehtala prihranek.
+ * Pretočni odgovori (StreamingOutput) se do praga ne zbirajo: velikost vnaprej ni znana, zbiranje pa bi zadržalo
+ * prve vrstice, zato se o stiskanju odloči ob prvem zapisu.
+ * RESTEasy Reactive zapiše glave v Vert.x odgovor pred telesom in interceptorju ne pove tipa vsebine,
+ * zato se o stiskanju odloči šele ob prvih bajtih, iz Content-Type in glav na Vert.x odgovoru, ki še niso poslane.
+ * Stisnjena predstavitev ima drugačne bajte, zato močnemu ETag-u doda pripono -gzip; If-None-Match se primerja brez nje.
+ */
+@Provider
+public class CompressionInterceptor implements WriterInterceptor, ContainerRequestFilter, ContainerResponseFilter {
+
+    static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private static final String GZIP_ETAG_PROPERTY = CompressionInterceptor.class.getName() + ".gzipEtag";
+
+    @ConfigProperty(name = "asset.compression.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "asset.compression.min-size", defaultValue = "1024")
+    int minSize;
+
+    @ConfigProperty(name = "asset.compression.media-types",
+            defaultValue = "application/json,application/cbor,application/x-jackson-smile")
+    List<String> mediaTypes;
+
+    @Context
+    HttpHeaders requestHeaders;
+
+    @Inject
+    CurrentVertxRequest currentRequest;
+
+    // Resource primerja svoje oznake brez pripone; zahteva si zapomni, da je odjemalec imel stisnjeno predstavitev
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        List<String> values = requestContext.getHeaders().get(HttpHeaders.IF_NONE_MATCH);
+        if (!enabled || values == null) {
+            return;
+        }
+        List<String> stripped = new ArrayList<>(values.size());
+        boolean changed = false;
+        for (String value : values) {
+            String tags = value.replace(GZIP_ETAG_SUFFIX + "\"", "\"");
+            changed |= !tags.equals(value);
+            stripped.add(tags);
+        }
+        if (changed) {
+            requestContext.getHeaders().put(HttpHeaders.IF_NONE_MATCH, stripped);
+            requestContext.setProperty(GZIP_ETAG_PROPERTY, Boolean.TRUE);
+        }
+    }
+
+    // 304 nima telesa in ne gre skozi interceptor, zato Vary in pripono vrne filter
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        EntityTag etag = responseContext.getEntityTag();
+        if (!enabled || responseContext.getStatus() != 304 || etag == null) {
+            return;
+        }
+        responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!etag.isWeak() && requestContext.getProperty(GZIP_ETAG_PROPERTY) != null) {
+            responseContext.getHeaders().putSingle(HttpHeaders.ETAG, new EntityTag(etag.getValue() + GZIP_ETAG_SUFFIX));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if (!enabled || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            context.proceed();
+            return;
+        }
+        HttpServerResponse response = currentRequest.getCurrent().response();
+        int threshold = context.getEntity() instanceof StreamingOutput ? 0 : minSize;
+        ThresholdGzipOutputStream output = new ThresholdGzipOutputStream(context.getOutputStream(), threshold,
+                aboveThreshold -> startGzip(response, aboveThreshold));
+        context.setOutputStream(output);
+        context.proceed();
+        output.finish();
+    }
+
+    // Odgovor je odvisen od Accept-Encoding, tudi kadar ostane nestisnjen; Vary: Accept doda izbira formata
+    private boolean startGzip(HttpServerResponse response, boolean aboveThreshold) {
+        if (response.headWritten() || response.headers().contains(HttpHeaders.CONTENT_ENCODING)
+                || !compressible(response.headers().get(HttpHeaders.CONTENT_TYPE))) {
+            return false;
+        }
+        response.headers().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!aboveThreshold || !acceptsGzip()) {
+            return false;
+        }
+        response.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.headers().remove(HttpHeaders.CONTENT_LENGTH);
+        String etag = response.headers().get(HttpHeaders.ETAG);
+        if (etag != null && etag.startsWith("\"") && etag.endsWith("\"")) {
+            response.putHeader(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"");
+        }
+        return true;
+    }
+
+    private boolean compressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.valueOf(contentType);
+        return mediaTypes.contains(mediaType.getType() + "/" + mediaType.getSubtype());
+    }
+
+    private boolean acceptsGzip() {
+        List<String> values = requestHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip") && !isZeroQuality(parts)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    interface GzipDecision {
+
+        // aboveThreshold=false: telo se je končalo pod pragom; true pomeni, da naj se stiska
+        boolean startGzip(boolean aboveThreshold);
+    }
+
+    // Do praga zbira bajte; ob preseku vpraša, ali stiskati (glave še niso poslane), in preklopi na gzip
+    static class ThresholdGzipOutputStream extends OutputStream {
+
+        private final OutputStream target;
+
+        private final int threshold;
+
+        private final GzipDecision decision;
+
+        private ByteArrayOutputStream buffer;
+
+        private OutputStream output;
+
+        private boolean finished;
+
+        ThresholdGzipOutputStream(OutputStream target, int threshold, GzipDecision decision) {
+            this.target = target;
+            this.threshold = threshold;
+            this.decision = decision;
+            this.buffer = new ByteArrayOutputStream(Math.min(Math.max(threshold, 32), 8192));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (output != null) {
+                output.write(bytes, offset, length);
+                return;
+            }
+            buffer.write(bytes, offset, length);
+            if (buffer.size() >= threshold) {
+                // syncFlush: flush pretočnega odgovora pošlje vse do sedaj stisnjene bajte
+                output = decision.startGzip(true) ? new GZIPOutputStream(target, 8192, true) : target;
+                buffer.writeTo(output);
+                buffer = null;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (output != null) {
+                output.flush();
+            }
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (output == null) {
+                decision.startGzip(false);
+                buffer.writeTo(target);
+            } else if (output instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            }
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+    }
+
+}
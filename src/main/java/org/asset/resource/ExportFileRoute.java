@@ -0,0 +1,50 @@
+package org.asset.resource;
+
+import io.vertx.ext.web.Router;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import org.asset.dto.ExportJobDto;
+import org.asset.service.AssetExportJobs;
+
+import java.nio.file.Path;
+
+/*
+ * Prenos končanega izvoza neposredno prek Vert.x sendFile: datoteka gre iz page cache-a v socket (sendfile),
+ * brez kopiranja skozi JAX-RS OutputStream. Pot je registrirana pred RESTEasy.
+ * Preverjanje datoteke in osvežitev časa dostopa sta blokirajoča klica na disk, zato handler teče na delovni niti
+ * (brez vrstnega reda med zahtevami); sam prenos je še vedno asinhron.
+ */
+@ApplicationScoped
+public class ExportFileRoute {
+
+    @Inject
+    AssetExportJobs exportJobs;
+
+    void init(@Observes Router router) {
+        router.get("/assets/export-jobs/:jobId/file").blockingHandler(context -> {
+            String jobId = context.pathParam("jobId");
+            ExportJobDto job = exportJobs.getJob(jobId);
+            if (job == null) {
+                context.response().setStatusCode(404).end("Export job not found");
+                return;
+            }
+            if (!AssetExportJobs.Status.DONE.name().equals(job.getStatus())) {
+                context.response().setStatusCode(409).end("Export is not ready");
+                return;
+            }
+            // Končano opravilo brez datoteke: izločilo jo je čiščenje predpomnilnika, ponovni 409 bi bil za vedno
+            Path file = exportJobs.getFile(jobId);
+            if (file == null) {
+                context.response().setStatusCode(410).end("Export file was evicted, submit the export again");
+                return;
+            }
+            context.response()
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                    .putHeader("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"")
+                    .sendFile(file.toString());
+        }, false);
+    }
+
+}
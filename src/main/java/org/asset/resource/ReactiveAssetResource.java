@@ -0,0 +1,141 @@
+package org.asset.resource;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetPatchDto;
+import org.asset.dto.LinkBatchRequestDto;
+import org.asset.service.ReactiveAssetService;
+import org.asset.service.TraversalDirection;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+/*
+ * Reaktivna različica AssetResource: iste poti pod /reactive/assets, vrnejo Uni/Multi in ne držijo delovne niti
+ * med čakanjem na bazo. Excel izvoz/uvoz in prijava ostajajo na blokirajočem AssetResource.
+ */
+@Path("/reactive/assets")
+public class ReactiveAssetResource {
+
+    @Inject
+    ReactiveAssetService resourceService;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> getAllAssets(@QueryParam("after") Long after,
+                                      @QueryParam("limit") Integer limit,
+                                      @Context UriInfo uriInfo) {
+        int pageLimit = resourceService.resolvePageLimit(limit);
+        return resourceService.getAllAssets(after, pageLimit)
+                .map(assets -> {
+                    Response.ResponseBuilder response = Response.ok(assets);
+                    if (assets.size() == pageLimit) {
+                        Long nextAfter = assets.get(assets.size() - 1).getId();
+                        response.link(uriInfo.getRequestUriBuilder()
+                                .replaceQueryParam("after", nextAfter)
+                                .replaceQueryParam("limit", pageLimit)
+                                .build(), "next");
+                    }
+                    return response.build();
+                });
+    }
+
+    // En asset na vrstico (NDJSON), pošiljanje sledi hitrosti odjemalca
+    @GET
+    @Path("/stream")
+    @Produces("application/x-ndjson")
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<AssetDto> streamAllAssets() {
+        return resourceService.streamAllAssets();
+    }
+
+    @GET
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> getAssetById(@PathParam("id") Long id) {
+        return notFoundAware(resourceService.getAssetById(id)
+                .map(assetDto -> Response.ok(assetDto).build()));
+    }
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> createAsset(AssetDto assetDto) {
+        return resourceService.createAsset(assetDto)
+                .map(created -> Response.status(Response.Status.CREATED).entity(created).build());
+    }
+
+    @PUT
+    @Path("/{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> updateAsset(@PathParam("id") Long id, AssetDto updatedAsset) {
+        return notFoundAware(resourceService.updateAsset(id, updatedAsset)
+                .map(assetDto -> Response.ok(assetDto).build()));
+    }
+
+    @POST
+    @Path("/links:batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> batchLinks(LinkBatchRequestDto request) {
+        return resourceService.batchLinks(request)
+                .map(result -> Response.ok(result).build());
+    }
+
+    @PATCH
+    @Path("/{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> patchAsset(@PathParam("id") Long id, AssetPatchDto patch) {
+        return notFoundAware(resourceService.patchAsset(id, patch)
+                .map(assetDto -> Response.ok(assetDto).build()));
+    }
+
+    @POST
+    @Path("/{id}/attributes")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> addAssetAttribute(@PathParam("id") Long assetId, AssetAttributeDto attributeDto) {
+        return notFoundAware(resourceService.addAssetAttribute(assetId, attributeDto)
+                .map(assetDto -> Response.status(Response.Status.CREATED).entity(assetDto).build()));
+    }
+
+    @GET
+    @Path("/{id}/attributes")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> getAssetAttributes(@PathParam("id") Long assetId) {
+        return notFoundAware(resourceService.getAssetAttributes(assetId)
+                .map(attributeDtos -> Response.ok(attributeDtos).build()));
+    }
+
+    @GET
+    @Path("/{id}/connected-assets")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> getConnectedAssets(@PathParam("id") Long assetId,
+                                            @QueryParam("depth") @DefaultValue("1") int depth,
+                                            @QueryParam("direction") String direction,
+                                            @QueryParam("limit") Integer limit) {
+        TraversalDirection traversalDirection;
+        try {
+            traversalDirection = TraversalDirection.fromString(direction);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().item(BinaryFormatWriter.error(Response.Status.BAD_REQUEST, "Invalid direction: " + direction));
+        }
+        return notFoundAware(resourceService.getConnectedAssets(assetId, depth, traversalDirection, limit)
+                .map(connectedAssets -> Response.ok(connectedAssets).build()));
+    }
+
+    // Enako kot try/catch v AssetResource: manjkajoč asset je 404 z besedilom napake
+    private static Uni<Response> notFoundAware(Uni<Response> response) {
+        return response.onFailure(NotFoundException.class)
+                .recoverWithItem(e -> BinaryFormatWriter.error(Response.Status.NOT_FOUND, e.getMessage()));
+    }
+
+}
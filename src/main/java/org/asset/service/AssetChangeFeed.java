@@ -0,0 +1,291 @@
+package org.asset.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.asset.dto.AssetChangeDto;
+import org.asset.dto.AssetLinkDto;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Vir dogodkov za GET /assets/changes (SSE).
+ * Spremembe pridejo po commitu (AFTER_SUCCESS), se v intervalu flush-interval združijo po assetu
+ * in dobijo zaporedno številko. Zadnjih buffer-size dogodkov ostane v krožnem medpomnilniku za Last-Event-ID.
+ * Vsak naročnik ima svojo omejeno vrsto in virtualno nit za pošiljanje: počasen odjemalec ne zadrži ostalih,
+ * ob polni vrsti pa se odklopi in ob ponovni povezavi manjkajoče dogodke dobi iz medpomnilnika.
+ * Id dogodka je "<epoha>-<zaporedna številka>". Epoha se izbere ob zagonu instance, zato Last-Event-ID iz prejšnjega
+ * zagona ali z druge instance za load balancerjem ne zgreši dogodkov, ampak dobi "reset".
+ */
+@ApplicationScoped
+public class AssetChangeFeed {
+
+    private static final Logger LOG = Logger.getLogger(AssetChangeFeed.class);
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "asset.changes.flush-interval", defaultValue = "200ms")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "asset.changes.buffer-size", defaultValue = "1024")
+    int bufferSize;
+
+    @ConfigProperty(name = "asset.changes.subscriber-queue", defaultValue = "256")
+    int subscriberQueue;
+
+    @ConfigProperty(name = "asset.changes.heartbeat", defaultValue = "30s")
+    Duration heartbeat;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Spremembe od zadnjega flush, po assetu; vrstni red prve spremembe se ohrani
+    private final Map<Long, AssetChangedEvent.Type> pending = new LinkedHashMap<>();
+
+    private final ArrayDeque<AssetChangeDto> history = new ArrayDeque<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+            + Long.toString(ThreadLocalRandom.current().nextLong(36 * 36 * 36 * 36), 36);
+
+    private long sequence;
+
+    private ScheduledExecutorService scheduler;
+
+    private Counter droppedSubscribers;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("asset.changes.subscribers", subscribers, Set::size)
+                .description("Open GET /assets/changes streams")
+                .register(meterRegistry);
+        droppedSubscribers = Counter.builder("asset.changes.subscribers.dropped")
+                .description("Change stream subscribers disconnected because their queue was full")
+                .register(meterRegistry);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("asset-changes").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sendHeartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    void onAssetChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) AssetChangedEvent event) {
+        lock.lock();
+        try {
+            if (event.getAssetId() != null) {
+                merge(event.getAssetId(), event.getType());
+            }
+            // Paketne spremembe povezav nimajo enega asseta: dogodek dobi vsak konec
+            for (AssetLinkDto link : event.getAddedLinks()) {
+                merge(link.getSourceAssetId(), AssetChangedEvent.Type.LINKS_CHANGED);
+                merge(link.getTargetAssetId(), AssetChangedEvent.Type.LINKS_CHANGED);
+            }
+            for (AssetLinkDto link : event.getRemovedLinks()) {
+                merge(link.getSourceAssetId(), AssetChangedEvent.Type.LINKS_CHANGED);
+                merge(link.getTargetAssetId(), AssetChangedEvent.Type.LINKS_CHANGED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // CREATED ostane CREATED; različne spremembe istega asseta postanejo UPDATED
+    private void merge(Long assetId, AssetChangedEvent.Type type) {
+        pending.merge(assetId, type, (previous, next) -> {
+            if (previous == AssetChangedEvent.Type.CREATED) {
+                return previous;
+            }
+            if (previous == AssetChangedEvent.Type.LINKS_CHANGED) {
+                return next;
+            }
+            return next == AssetChangedEvent.Type.LINKS_CHANGED || previous == next ? previous : AssetChangedEvent.Type.UPDATED;
+        });
+    }
+
+    /*
+     * Naročnik najprej dobi dogodke za lastEventId iz medpomnilnika, nato sproti nove. Če lastEventId ni iz te epohe,
+     * je novejši od zadnjega dogodka ali starejši od medpomnilnika, dobi dogodek "reset" in mora stanje prebrati znova.
+     */
+    public void subscribe(SseEventSink sink, Sse sse, String lastEventId) {
+        lock.lock();
+        try {
+            List<OutboundSseEvent> replay = new ArrayList<>();
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                long after = sequenceOf(lastEventId.trim());
+                long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().getSequence();
+                if (after < 0 || after > sequence || after + 1 < oldest) {
+                    replay.add(sse.newEventBuilder()
+                            .name("reset")
+                            .id(eventId(sequence))
+                            .data(eventId(sequence))
+                            .build());
+                } else {
+                    for (AssetChangeDto change : history) {
+                        if (change.getSequence() > after) {
+                            replay.add(toEvent(sse, change));
+                        }
+                    }
+                }
+            }
+            Subscriber subscriber = new Subscriber(sink, sse, subscriberQueue + replay.size());
+            subscriber.queue.addAll(replay);
+            subscribers.add(subscriber);
+            subscriber.thread = Thread.ofVirtual().name("asset-changes-subscriber").start(subscriber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Zaporedna številka iz id-ja te epohe; -1 za id druge epohe ali neveljaven id
+    private long sequenceOf(String eventId) {
+        if (!eventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    void flush() {
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<AssetChangeDto> batch = new ArrayList<>(pending.size());
+            for (Map.Entry<Long, AssetChangedEvent.Type> entry : pending.entrySet()) {
+                AssetChangeDto change = new AssetChangeDto(++sequence, entry.getKey(), entry.getValue().name());
+                batch.add(change);
+                history.addLast(change);
+                if (history.size() > bufferSize) {
+                    history.removeFirst();
+                }
+            }
+            pending.clear();
+
+            for (Subscriber subscriber : subscribers) {
+                for (AssetChangeDto change : batch) {
+                    if (!subscriber.offer(toEvent(subscriber.sse, change))) {
+                        break;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Asset change flush failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty()) {
+                subscriber.offer(subscriber.sse.newEventBuilder().comment("heartbeat").build());
+            }
+        }
+    }
+
+    private OutboundSseEvent toEvent(Sse sse, AssetChangeDto change) {
+        return sse.newEventBuilder()
+                .id(eventId(change.getSequence()))
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(AssetChangeDto.class, change)
+                .build();
+    }
+
+    private class Subscriber implements Runnable {
+
+        private final SseEventSink sink;
+
+        private final Sse sse;
+
+        private final BlockingQueue<OutboundSseEvent> queue;
+
+        private volatile Thread thread;
+
+        Subscriber(SseEventSink sink, Sse sse, int capacity) {
+            this.sink = sink;
+            this.sse = sse;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+
+        // Polna vrsta pomeni, da odjemalec ne sledi: odklop, manjkajoče dobi ob ponovni povezavi z Last-Event-ID
+        boolean offer(OutboundSseEvent event) {
+            if (queue.offer(event)) {
+                return true;
+            }
+            droppedSubscribers.increment();
+            close();
+            return false;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!sink.isClosed()) {
+                    OutboundSseEvent event = queue.take();
+                    sink.send(event).toCompletableFuture().join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                LOG.debug("Asset change subscriber disconnected", e);
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            subscribers.remove(this);
+            if (!sink.isClosed()) {
+                sink.close();
+            }
+            Thread sender = thread;
+            if (sender != null && sender != Thread.currentThread()) {
+                sender.interrupt();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.asset.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.asset.dto.AssetLinkDto;
+import org.asset.model.AssetLink;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// CDI dogodek ob spremembi asseta; opazovalci z TransactionPhase.AFTER_SUCCESS ga dobijo šele po commitu
+@Getter
+@AllArgsConstructor
+public class AssetChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, ATTRIBUTE_ADDED, LINKS_CHANGED
+    }
+
+    // null pri paketnih spremembah povezav, ki zadevajo več assetov
+    private final Long assetId;
+
+    private final Type type;
+
+    private final List<AssetLinkDto> addedLinks;
+
+    private final List<AssetLinkDto> removedLinks;
+
+    // Naslov in atributi asseta assetId; prazno pri paketnih spremembah povezav
+    private final AssetFieldChanges fieldChanges;
+
+    public AssetChangedEvent(Long assetId, Type type, List<AssetLinkDto> addedLinks, List<AssetLinkDto> removedLinks) {
+        this(assetId, type, addedLinks, removedLinks, new AssetFieldChanges());
+    }
+
+    // Povezave brez enega od koncev v graf ne spadajo, zato jih izpustimo
+    public static List<AssetLinkDto> links(Collection<AssetLink> links) {
+        List<AssetLinkDto> linkDtos = new ArrayList<>(links.size());
+        for (AssetLink link : links) {
+            if (link.getSourceAsset() != null && link.getTargetAsset() != null) {
+                linkDtos.add(new AssetLinkDto(link.getId(), link.getSourceAsset().getId(), link.getTargetAsset().getId()));
+            }
+        }
+        return linkDtos;
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.asset.service;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Pretočno pisanje Excel datoteke: v pomnilniku je le zadnjih "rowWindow" vrstic, ostale gredo v začasno datoteko
+public class AssetExcelWriter implements Closeable {
+
+    public static final String SHEET_NAME = "Asset Attributes";
+
+    public static final String[] ATTRIBUTE_HEADERS = {"Attribute", "Type", "Required", "Min value", "Max value"};
+
+    public static final String[] ASSET_HEADERS = {"Asset ID", "Asset", "Attribute", "Type", "Required", "Min value", "Max value"};
+
+    private final SXSSFWorkbook workbook;
+
+    private final Sheet sheet;
+
+    private int rowNum;
+
+    private AssetExcelWriter(int rowWindow, String[] headers) {
+        workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        sheet = workbook.createSheet(SHEET_NAME);
+
+        Row headerRow = sheet.createRow(rowNum++);
+        for (int i = 0; i < headers.length; i++) {
+            headerRow.createCell(i).setCellValue(headers[i]);
+        }
+    }
+
+    // Izvoz enega asseta: samo stolpci atributov
+    public static AssetExcelWriter forAttributes(int rowWindow) {
+        return new AssetExcelWriter(rowWindow, ATTRIBUTE_HEADERS);
+    }
+
+    // Izvoz več assetov: vsaka vrstica ima še id in naslov asseta
+    public static AssetExcelWriter forAssets(int rowWindow) {
+        return new AssetExcelWriter(rowWindow, ASSET_HEADERS);
+    }
+
+    public void writeAttribute(AssetAttributeDto attribute) {
+        Row row = sheet.createRow(rowNum++);
+        writeAttributeCells(row, 0, attribute);
+    }
+
+    public void writeAsset(AssetDto asset) {
+        if (asset.getAttributes() == null || asset.getAttributes().isEmpty()) {
+            createAssetRow(asset);
+            return;
+        }
+        for (AssetAttributeDto attribute : asset.getAttributes()) {
+            writeAttributeCells(createAssetRow(asset), 2, attribute);
+        }
+    }
+
+    public void write(OutputStream output) throws IOException {
+        workbook.write(output);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.close();
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    private Row createAssetRow(AssetDto asset) {
+        Row row = sheet.createRow(rowNum++);
+        row.createCell(0).setCellValue(asset.getId());
+        row.createCell(1).setCellValue(asset.getTitle());
+        return row;
+    }
+
+    private void writeAttributeCells(Row row, int firstCell, AssetAttributeDto attribute) {
+        row.createCell(firstCell).setCellValue(attribute.getName());
+        row.createCell(firstCell + 1).setCellValue(attribute.getType());
+        row.createCell(firstCell + 2).setCellValue(attribute.isRequired());
+        row.createCell(firstCell + 3).setCellValue(attribute.getMinValue());
+        row.createCell(firstCell + 4).setCellValue(attribute.getMaxValue());
+    }
+
+}
@@ -0,0 +1,274 @@
+package org.asset.service;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.asset.dto.ExportJobDto;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/*
+ * Asinhroni Excel izvoz posameznega asseta: opravilo teče na omejenem poolu, rezultat ostane na disku
+ * pod ključem (id, verzija). Ista verzija se ne generira dvakrat; nova verzija asseta pomeni novo datoteko.
+ * Verzija se prebere pred vsebino, zato je datoteka kvečjemu novejša od svoje verzije, nikoli starejša.
+ * Ko imenik preseže max-size, se brišejo najdlje nerabljene datoteke (čas zadnje spremembe = zadnji dostop).
+ */
+@ApplicationScoped
+public class AssetExportJobs {
+
+    private static final Logger LOG = Logger.getLogger(AssetExportJobs.class);
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    @Inject
+    AssetService assetService;
+
+    @ConfigProperty(name = "asset.export.jobs.threads", defaultValue = "2")
+    int threads;
+
+    @ConfigProperty(name = "asset.export.jobs.queue", defaultValue = "50")
+    int queueSize;
+
+    @ConfigProperty(name = "asset.export.jobs.retention", defaultValue = "1h")
+    Duration retention;
+
+    @ConfigProperty(name = "asset.export.cache.dir", defaultValue = "${java.io.tmpdir}/asset-exports")
+    String cacheDirectory;
+
+    @ConfigProperty(name = "asset.export.cache.max-size", defaultValue = "512M")
+    MemorySize maxCacheSize;
+
+    private Path cacheDir;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    // Opravilo v teku za ključ (id, verzija), da sočasne enake zahteve ne generirajo iste datoteke
+    private final Map<String, Job> running = new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        cacheDir = Path.of(cacheDirectory);
+        try {
+            Files.createDirectories(cacheDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                task -> new Thread(task, "asset-export-" + threadNumber.incrementAndGet()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ExportJobDto submit(Long assetId) {
+        purgeExpired();
+        // S primarne baze: verzija z replike bi lahko zaostajala in ključ datoteke ne bi ustrezal vsebini izvoza
+        long version = assetService.getCurrentAssetVersion(assetId);
+        String key = assetId + "-v" + version;
+        Path file = cacheDir.resolve("asset-" + key + ".xlsx");
+
+        Job job = new Job(UUID.randomUUID().toString(), assetId, version, file);
+        if (Files.exists(file)) {
+            touch(file);
+            job.status = Status.DONE;
+            jobs.put(job.id, job);
+            return job.toDto();
+        }
+
+        Job existing = running.putIfAbsent(key, job);
+        if (existing != null) {
+            return existing.toDto();
+        }
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, key));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            running.remove(key);
+            throw new ServiceUnavailableException(60L);
+        }
+        return job.toDto();
+    }
+
+    public ExportJobDto getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        return job == null ? null : job.toDto();
+    }
+
+    // Datoteka končanega opravila ali null, če opravilo ne obstaja, še ni končano ali je bila datoteka izločena
+    public Path getFile(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || job.status != Status.DONE || !Files.exists(job.file)) {
+            return null;
+        }
+        touch(job.file);
+        return job.file;
+    }
+
+    private void run(Job job, String key) {
+        job.status = Status.RUNNING;
+        Path tmp = job.file.resolveSibling(job.file.getFileName() + "." + job.id + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                assetService.exportAssetToExcel(job.assetId, out);
+            }
+            Files.move(tmp, job.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.status = Status.DONE;
+            deleteOlderVersions(job.assetId, job.version);
+            evict();
+        } catch (Exception e) {
+            LOG.warnf(e, "Export job %s for asset %d failed", job.id, job.assetId);
+            job.error = e.getMessage();
+            job.status = Status.FAILED;
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // Ostanek se počisti ob naslednjem izločanju
+            }
+        } finally {
+            running.remove(key);
+        }
+    }
+
+    // Starejših verzij ne more zahtevati nihče več, ker se verzija ob vsakem submit prebere znova
+    private void deleteOlderVersions(Long assetId, long version) throws IOException {
+        String prefix = "asset-" + assetId + "-v";
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(".xlsx")) {
+                    String fileVersion = name.substring(prefix.length(), name.length() - ".xlsx".length());
+                    if (!fileVersion.equals(String.valueOf(version))) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+    }
+
+    private void evict() throws IOException {
+        evictionLock.lock();
+        try {
+            List<Path> files = new ArrayList<>();
+            long total = 0;
+            try (Stream<Path> listing = Files.list(cacheDir)) {
+                for (Path file : (Iterable<Path>) listing::iterator) {
+                    if (file.getFileName().toString().endsWith(".xlsx")) {
+                        files.add(file);
+                        total += Files.size(file);
+                    }
+                }
+            }
+            if (total <= maxCacheSize.asLongValue()) {
+                return;
+            }
+            files.sort(Comparator.comparing(AssetExportJobs::lastModified));
+            for (Path file : files) {
+                if (total <= maxCacheSize.asLongValue()) {
+                    break;
+                }
+                long size = Files.size(file);
+                Files.deleteIfExists(file);
+                total -= size;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.status.ordinal() >= Status.DONE.ordinal() && job.created.isBefore(cutoff));
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            // Datoteko je vmes izločilo čiščenje; opravilo jo bo ustvarilo znova
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static class Job {
+
+        private final String id;
+
+        private final Long assetId;
+
+        private final long version;
+
+        private final Path file;
+
+        private final Instant created = Instant.now();
+
+        private volatile Status status = Status.QUEUED;
+
+        private volatile String error;
+
+        Job(String id, Long assetId, long version, Path file) {
+            this.id = id;
+            this.assetId = assetId;
+            this.version = version;
+            this.file = file;
+        }
+
+        ExportJobDto toDto() {
+            ExportJobDto dto = new ExportJobDto();
+            dto.setId(id);
+            dto.setAssetId(assetId);
+            dto.setVersion(version);
+            dto.setStatus(status.name());
+            dto.setError(error);
+            if (status == Status.DONE) {
+                dto.setDownloadUrl("/assets/export-jobs/" + id + "/file");
+            }
+            return dto;
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.asset.service;
+
+import lombok.Getter;
+import org.asset.dto.AssetAttributeDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+// Spremenjena polja asseta za zgodovino; povezave nosi AssetChangedEvent posebej
+@Getter
+public class AssetFieldChanges {
+
+    private boolean titleChanged;
+
+    private String oldTitle;
+
+    private String newTitle;
+
+    private final List<AssetAttributeDto> addedAttributes = new ArrayList<>();
+
+    private final List<AssetAttributeDto> removedAttributes = new ArrayList<>();
+
+    public static AssetFieldChanges created(String title, Collection<AssetAttributeDto> attributes) {
+        AssetFieldChanges changes = new AssetFieldChanges();
+        changes.title(null, title);
+        changes.addedAttributes.addAll(attributes);
+        return changes;
+    }
+
+    public static AssetFieldChanges attributeAdded(AssetAttributeDto attribute) {
+        AssetFieldChanges changes = new AssetFieldChanges();
+        changes.addedAttributes.add(attribute);
+        return changes;
+    }
+
+    // Enak naslov ni sprememba
+    public void title(String oldTitle, String newTitle) {
+        if (!Objects.equals(oldTitle, newTitle)) {
+            titleChanged = true;
+            this.oldTitle = oldTitle;
+            this.newTitle = newTitle;
+        }
+    }
+
+    public boolean isEmpty() {
+        return !titleChanged && addedAttributes.isEmpty() && removedAttributes.isEmpty();
+    }
+
+}
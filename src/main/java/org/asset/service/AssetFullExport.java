@@ -0,0 +1,231 @@
+package org.asset.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/*
+ * Celoten inventar (asseti, atributi, povezave) za nočni izvoz v skladišče podatkov.
+ * Vse tri poizvedbe tečejo v eni read-only REPEATABLE READ transakciji, zato so med seboj skladne.
+ * Vrstice se berejo s strežniškim kurzorjem po fetch-size naenkrat in se takoj zapišejo v odgovor;
+ * v pomnilniku ni ne celotnega rezultata ne entitet. Povezava je mimo JTA, da dolgega izvoza ne prekine
+ * časovna omejitev transakcije.
+ */
+@ApplicationScoped
+public class AssetFullExport {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format fromString(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            return valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    private static final String ASSETS = "SELECT id, title, version FROM asset ORDER BY id";
+
+    private static final String ATTRIBUTES = "SELECT aa.asset_id, a.id, a.name, a.type, a.required, a.minvalue, a.maxvalue " +
+            "FROM asset_assetattribute aa JOIN assetattribute a ON a.id = aa.attributes_id ORDER BY aa.asset_id, aa.attributes_id";
+
+    private static final String LINKS = "SELECT id, sourceasset_id, targetasset_id FROM assetlink ORDER BY id";
+
+    private static final String CSV_HEADER = "record,id,asset_id,title,version,name,type,required,min_value,max_value," +
+            "source_asset_id,target_asset_id\n";
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "asset.export.full.fetch-size", defaultValue = "5000")
+    int fetchSize;
+
+    @ConfigProperty(name = "asset.export.full.buffer-size", defaultValue = "65536")
+    int bufferSize;
+
+    public void export(Format format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), bufferSize);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                if (format == Format.CSV) {
+                    writeCsv(connection, writer);
+                } else {
+                    writeNdjson(connection, writer);
+                }
+                writer.flush();
+            } finally {
+                // Samo branje: commit ali rollback sta enakovredna, rollback se izogne morebitnim zapisom
+                connection.rollback();
+                connection.setAutoCommit(true);
+                connection.setReadOnly(false);
+                connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Full export failed", e);
+        }
+    }
+
+    // En JSON objekt na vrstico, polje "record" pove vrsto; generator piše neposredno v medpomnilnik
+    private void writeNdjson(Connection connection, Writer writer) throws SQLException, IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        try (PreparedStatement statement = cursor(connection, ASSETS); ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                generator.writeStartObject();
+                generator.writeStringField("record", "asset");
+                generator.writeNumberField("id", rows.getLong(1));
+                generator.writeStringField("title", rows.getString(2));
+                generator.writeNumberField("version", rows.getLong(3));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        try (PreparedStatement statement = cursor(connection, ATTRIBUTES); ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                generator.writeStartObject();
+                generator.writeStringField("record", "attribute");
+                generator.writeNumberField("assetId", rows.getLong(1));
+                generator.writeNumberField("id", rows.getLong(2));
+                generator.writeStringField("name", rows.getString(3));
+                generator.writeStringField("type", rows.getString(4));
+                generator.writeBooleanField("required", rows.getBoolean(5));
+                generator.writeStringField("minValue", rows.getString(6));
+                generator.writeStringField("maxValue", rows.getString(7));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        try (PreparedStatement statement = cursor(connection, LINKS); ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                generator.writeStartObject();
+                generator.writeStringField("record", "link");
+                generator.writeNumberField("id", rows.getLong(1));
+                writeNullableNumber(generator, "sourceAssetId", rows, 2);
+                writeNullableNumber(generator, "targetAssetId", rows, 3);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        generator.flush();
+    }
+
+    // Ena tabela za vse tri vrste zapisov; stolpci, ki za vrsto ne veljajo, ostanejo prazni
+    private void writeCsv(Connection connection, Writer writer) throws SQLException, IOException {
+        writer.write(CSV_HEADER);
+        try (PreparedStatement statement = cursor(connection, ASSETS); ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                writer.write("asset,");
+                writer.write(Long.toString(rows.getLong(1)));
+                writer.write(",,");
+                writeCsvValue(writer, rows.getString(2));
+                writer.write(',');
+                writer.write(Long.toString(rows.getLong(3)));
+                writer.write(",,,,,,,\n");
+            }
+        }
+        try (PreparedStatement statement = cursor(connection, ATTRIBUTES); ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                writer.write("attribute,");
+                writer.write(Long.toString(rows.getLong(2)));
+                writer.write(',');
+                writer.write(Long.toString(rows.getLong(1)));
+                writer.write(",,,");
+                writeCsvValue(writer, rows.getString(3));
+                writer.write(',');
+                writeCsvValue(writer, rows.getString(4));
+                writer.write(rows.getBoolean(5) ? ",true," : ",false,");
+                writeCsvValue(writer, rows.getString(6));
+                writer.write(',');
+                writeCsvValue(writer, rows.getString(7));
+                writer.write(",,\n");
+            }
+        }
+        try (PreparedStatement statement = cursor(connection, LINKS); ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                writer.write("link,");
+                writer.write(Long.toString(rows.getLong(1)));
+                writer.write(",,,,,,,,,");
+                writeCsvNumber(writer, rows, 2);
+                writer.write(',');
+                writeCsvNumber(writer, rows, 3);
+                writer.write('\n');
+            }
+        }
+    }
+
+    // Pri PostgreSQL fetch size deluje samo z autocommit=false in kurzorjem, ki gre samo naprej
+    private PreparedStatement cursor(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    private static void writeNullableNumber(JsonGenerator generator, String field, ResultSet rows, int column)
+            throws SQLException, IOException {
+        long value = rows.getLong(column);
+        if (rows.wasNull()) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private static void writeCsvNumber(Writer writer, ResultSet rows, int column) throws SQLException, IOException {
+        long value = rows.getLong(column);
+        if (!rows.wasNull()) {
+            writer.write(Long.toString(value));
+        }
+    }
+
+    // RFC 4180: narekovaji le, kadar vrednost vsebuje ločilo, narekovaj ali prelom vrstice
+    static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+}
@@ -0,0 +1,902 @@
+package org.asset.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.asset.dto.AssetLinkDto;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/*
+ * Graf povezav med asseti v pomnilniku, v CSR obliki nad primitivnimi polji.
+ * Ob zagonu se naloži iz baze, nato ga posodabljajo AssetChangedEvent dogodki po commitu.
+ * Spremembe se zbirajo v delti po vozliščih; ko delta preseže prag, se v ozadju zgradi nov CSR in zamenja starega.
+ * Delta je idempotentna po id-ju povezave, zato ponovna uporaba dogodka, ki ga CSR že vsebuje, nič ne spremeni.
+ * Delto spreminjajo samo niti z zaklepom, bralci jo berejo brez zaklepa: sprememba zamenja le polje dotaknjenega
+ * vozlišča, zato bralec vidi vsako vozlišče pred spremembo ali po njej.
+ */
+@ApplicationScoped
+public class AssetGraphIndex {
+
+    private static final Logger LOG = Logger.getLogger(AssetGraphIndex.class);
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "asset.graph.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "asset.graph.index.compaction-threshold", defaultValue = "4096")
+    int compactionThreshold;
+
+    // Gradnja CSR ob zlivanju delte; ena nit, ker hkrati teče največ ena gradnja
+    Executor compactionExecutor;
+
+    // null dokler indeks ni naložen; takrat poizvedbe gredo v bazo
+    private volatile State state;
+
+    // Med gradnjo novega CSR (nalaganje ali zlivanje) se dogodki shranijo in po zamenjavi ponovijo nad novim CSR
+    private boolean building;
+
+    private final List<AssetChangedEvent> pendingChanges = new ArrayList<>();
+
+    // Zaklep namesto synchronized: commiti na virtualnih nitih med čakanjem ne zasedejo nosilne niti
+    private final ReentrantLock lock = new ReentrantLock();
+
+    void onStart(@Observes StartupEvent event) {
+        Gauge.builder("asset.graph.index.memory", this, AssetGraphIndex::memoryFootprint)
+                .description("Approximate heap used by the asset link graph index")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("asset.graph.index.edges", this, AssetGraphIndex::edgeCount)
+                .description("Asset links held in the graph index")
+                .register(meterRegistry);
+
+        if (enabled) {
+            compactionExecutor = Executors.newSingleThreadExecutor(
+                    Thread.ofPlatform().name("asset-graph-compaction").daemon().factory());
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                LOG.warn("Asset graph index could not be loaded, traversals fall back to the database", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (compactionExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Transactional
+    public void rebuild() {
+        build(this::loadEdges);
+    }
+
+    // Vir povezav je ločen od gradnje, da se zamenjava CSR in ponovitev dogodkov da preskusiti brez baze
+    void build(Supplier<EdgeList> source) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (building) {
+                LOG.info("Asset graph index is already being built, skipping rebuild");
+                return;
+            }
+            building = true;
+        } finally {
+            lock.unlock();
+        }
+
+        Csr csr;
+        try {
+            csr = Csr.build(source.get());
+        } catch (RuntimeException e) {
+            abortBuild();
+            throw e;
+        }
+        install(csr);
+
+        long elapsed = System.nanoTime() - start;
+        rebuildTimer("full").record(elapsed, TimeUnit.NANOSECONDS);
+        LOG.infof("Asset graph index loaded: %d links in %d ms", csr.edgeCount(), elapsed / 1_000_000);
+    }
+
+    private EdgeList loadEdges() {
+        EdgeList edges = new EdgeList(1024);
+        try (Stream<Object[]> rows = entityManager.createQuery(
+                        "SELECT l.id, l.sourceAsset.id, l.targetAsset.id FROM AssetLink l " +
+                                "WHERE l.sourceAsset IS NOT NULL AND l.targetAsset IS NOT NULL", Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 10_000)
+                .getResultStream()) {
+            rows.forEach(row -> edges.add((Long) row[0], (Long) row[1], (Long) row[2]));
+        }
+        return edges;
+    }
+
+    void onAssetChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) AssetChangedEvent event) {
+        if (event.getAddedLinks().isEmpty() && event.getRemovedLinks().isEmpty()) {
+            return;
+        }
+        State compactFrom = null;
+        lock.lock();
+        try {
+            if (building) {
+                pendingChanges.add(event);
+            }
+            if (state == null) {
+                return;
+            }
+            apply(state, event);
+            if (!building && state.delta.size() > compactionThreshold) {
+                building = true;
+                compactFrom = state;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (compactFrom != null) {
+            scheduleCompaction(compactFrom);
+        }
+    }
+
+    public boolean isReady() {
+        return state != null;
+    }
+
+    // Iskanje v širino nad indeksom; vrne vozlišča v vrstnem redu odkritja ali null, če indeks ni naložen
+    public Traversal traverse(long root, int maxDepth, TraversalDirection direction, int maxNodes) {
+        State current = state;
+        if (current == null) {
+            return null;
+        }
+
+        Traversal distances = new Traversal();
+        LongSet visited = new LongSet(64);
+        visited.add(root);
+        LongList frontier = new LongList(16);
+        frontier.add(root);
+        LongList next = new LongList(16);
+
+        for (int distance = 1; distance <= maxDepth && frontier.size > 0 && distances.size < maxNodes; distance++) {
+            next.size = 0;
+            for (int i = 0; i < frontier.size && distances.size < maxNodes; i++) {
+                long node = frontier.values[i];
+                if (direction.followsOutgoing()) {
+                    collect(current, node, true, visited, next, distances, distance, maxNodes);
+                }
+                if (direction.followsIncoming()) {
+                    collect(current, node, false, visited, next, distances, distance, maxNodes);
+                }
+            }
+            LongList swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        return distances;
+    }
+
+    public long memoryFootprint() {
+        State current = state;
+        return current == null ? 0 : current.memoryFootprint();
+    }
+
+    public long edgeCount() {
+        State current = state;
+        return current == null ? 0 : current.csr.edgeCount() + current.delta.added - current.delta.removed.size();
+    }
+
+    private void collect(State current, long node, boolean outgoing, LongSet visited, LongList next,
+                         Traversal distances, int distance, int maxNodes) {
+        long[] neighbours = current.neighbours(node, outgoing);
+        for (long neighbour : neighbours) {
+            if (distances.size == maxNodes) {
+                return;
+            }
+            if (visited.add(neighbour)) {
+                distances.add(neighbour, distance);
+                next.add(neighbour);
+            }
+        }
+    }
+
+    // Zlivanje teče izven zaklepa: commiti medtem nadgrajujejo trenutni State, nov CSR jih po zamenjavi ponovi
+    private void scheduleCompaction(State snapshot) {
+        try {
+            compactionExecutor.execute(() -> {
+                try {
+                    long start = System.nanoTime();
+                    Csr csr = Csr.build(snapshot.allEdges());
+                    install(csr);
+                    rebuildTimer("compaction").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                } catch (RuntimeException e) {
+                    LOG.warn("Asset graph index compaction failed, keeping the current delta", e);
+                    abortBuild();
+                }
+            });
+        } catch (RuntimeException e) {
+            LOG.warn("Asset graph index compaction could not be scheduled", e);
+            abortBuild();
+        }
+    }
+
+    private void install(Csr csr) {
+        lock.lock();
+        try {
+            State next = new State(csr, new Delta());
+            for (AssetChangedEvent change : pendingChanges) {
+                apply(next, change);
+            }
+            pendingChanges.clear();
+            state = next;
+            building = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abortBuild() {
+        lock.lock();
+        try {
+            building = false;
+            pendingChanges.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Samo z zaklepom; delta se spremeni na mestu
+    private static void apply(State current, AssetChangedEvent change) {
+        Delta delta = current.delta;
+        for (AssetLinkDto link : change.getRemovedLinks()) {
+            long id = link.getId();
+            if (!delta.removeAdded(id, link.getSourceAssetId(), link.getTargetAssetId())
+                    && current.csr.contains(id, link.getSourceAssetId())) {
+                delta.removed.add(id);
+            }
+        }
+        for (AssetLinkDto link : change.getAddedLinks()) {
+            long id = link.getId();
+            if (!current.csr.contains(id, link.getSourceAssetId())) {
+                delta.add(id, link.getSourceAssetId(), link.getTargetAssetId());
+            }
+        }
+    }
+
+    private Timer rebuildTimer(String kind) {
+        return Timer.builder("asset.graph.index.rebuild")
+                .description("Time spent building the asset link graph index")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    // CSR iz zadnje gradnje in delta sprememb od takrat; nov State nastane samo ob zamenjavi CSR
+    private static final class State {
+
+        final Csr csr;
+
+        final Delta delta;
+
+        State(Csr csr, Delta delta) {
+            this.csr = csr;
+            this.delta = delta;
+        }
+
+        long[] neighbours(long node, boolean outgoing) {
+            long[] base = csr.neighbours(node, outgoing, delta.removed);
+            long[] added = (outgoing ? delta.outgoing : delta.incoming).get(node);
+            if (added == null) {
+                return base;
+            }
+            long[] result = Arrays.copyOf(base, base.length + added.length / 2);
+            for (int i = 1, r = base.length; i < added.length; i += 2) {
+                result[r++] = added[i];
+            }
+            return result;
+        }
+
+        EdgeList allEdges() {
+            EdgeList edges = new EdgeList(csr.edgeCount() + delta.added);
+            for (int node = 0; node < csr.nodes.length; node++) {
+                for (int i = csr.outOffsets[node]; i < csr.outOffsets[node + 1]; i++) {
+                    if (!delta.removed.contains(csr.outLinks[i])) {
+                        edges.add(csr.outLinks[i], csr.nodes[node], csr.nodes[csr.outTargets[i]]);
+                    }
+                }
+            }
+            delta.outgoing.forEach((source, links) -> {
+                for (int i = 0; i < links.length; i += 2) {
+                    edges.add(links[i], source, links[i + 1]);
+                }
+            });
+            return edges;
+        }
+
+        long memoryFootprint() {
+            return csr.memoryFootprint() + delta.memoryFootprint();
+        }
+
+    }
+
+    /*
+     * Spremembe od zadnje gradnje CSR. Dodane povezave so po vozliščih, kot pari (id povezave, sosed) v enem polju;
+     * odstranjene so id-ji povezav iz CSR. Polje vozlišča se ob spremembi zamenja, ne spremeni, zato sprememba
+     * stane sorazmerno s povezavami dotaknjenega vozlišča, ne z velikostjo delte.
+     */
+    private static final class Delta {
+
+        final LongArrayMap outgoing = new LongArrayMap(16);
+
+        final LongArrayMap incoming = new LongArrayMap(16);
+
+        final LinkIdSet removed = new LinkIdSet(16);
+
+        volatile int added;
+
+        int size() {
+            return added + removed.size();
+        }
+
+        void add(long id, long source, long target) {
+            long[] links = outgoing.get(source);
+            if (indexOf(links, id) >= 0) {
+                return;
+            }
+            outgoing.put(source, append(links, id, target));
+            incoming.put(target, append(incoming.get(target), id, source));
+            added++;
+        }
+
+        boolean removeAdded(long id, long source, long target) {
+            long[] links = outgoing.get(source);
+            int index = indexOf(links, id);
+            if (index < 0) {
+                return false;
+            }
+            outgoing.put(source, without(links, index));
+            long[] reverse = incoming.get(target);
+            incoming.put(target, without(reverse, indexOf(reverse, id)));
+            added--;
+            return true;
+        }
+
+        long memoryFootprint() {
+            return removed.memoryFootprint() + outgoing.memoryFootprint() + incoming.memoryFootprint();
+        }
+
+        private static int indexOf(long[] links, long id) {
+            if (links != null) {
+                for (int i = 0; i < links.length; i += 2) {
+                    if (links[i] == id) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private static long[] append(long[] links, long id, long neighbour) {
+            long[] result = links == null ? new long[2] : Arrays.copyOf(links, links.length + 2);
+            result[result.length - 2] = id;
+            result[result.length - 1] = neighbour;
+            return result;
+        }
+
+        private static long[] without(long[] links, int index) {
+            long[] result = new long[links.length - 2];
+            System.arraycopy(links, 0, result, 0, index);
+            System.arraycopy(links, index + 2, result, index, links.length - index - 2);
+            return result;
+        }
+
+    }
+
+    /*
+     * Compressed sparse row: nodes so urejeni id-ji, outOffsets[i]..outOffsets[i+1] je rezina
+     * outTargets s sosedi vozlišča i (indeksi v nodes) in outLinks z id-ji povezav; enako za vhodne povezave.
+     */
+    private static final class Csr {
+
+        final long[] nodes;
+
+        final int[] outOffsets;
+
+        final int[] outTargets;
+
+        final long[] outLinks;
+
+        final int[] inOffsets;
+
+        final int[] inSources;
+
+        final long[] inLinks;
+
+        private Csr(long[] nodes, int[] outOffsets, int[] outTargets, long[] outLinks,
+                    int[] inOffsets, int[] inSources, long[] inLinks) {
+            this.nodes = nodes;
+            this.outOffsets = outOffsets;
+            this.outTargets = outTargets;
+            this.outLinks = outLinks;
+            this.inOffsets = inOffsets;
+            this.inSources = inSources;
+            this.inLinks = inLinks;
+        }
+
+        static Csr build(EdgeList edges) {
+            long[] endpoints = new long[edges.size * 2];
+            System.arraycopy(edges.sources, 0, endpoints, 0, edges.size);
+            System.arraycopy(edges.targets, 0, endpoints, edges.size, edges.size);
+            Arrays.sort(endpoints);
+            int unique = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                if (i == 0 || endpoints[i] != endpoints[i - 1]) {
+                    endpoints[unique++] = endpoints[i];
+                }
+            }
+            long[] nodes = Arrays.copyOf(endpoints, unique);
+
+            int[] sourceIndex = new int[edges.size];
+            int[] targetIndex = new int[edges.size];
+            int[] outOffsets = new int[nodes.length + 1];
+            int[] inOffsets = new int[nodes.length + 1];
+            for (int e = 0; e < edges.size; e++) {
+                sourceIndex[e] = Arrays.binarySearch(nodes, edges.sources[e]);
+                targetIndex[e] = Arrays.binarySearch(nodes, edges.targets[e]);
+                outOffsets[sourceIndex[e] + 1]++;
+                inOffsets[targetIndex[e] + 1]++;
+            }
+            for (int i = 0; i < nodes.length; i++) {
+                outOffsets[i + 1] += outOffsets[i];
+                inOffsets[i + 1] += inOffsets[i];
+            }
+
+            int[] outTargets = new int[edges.size];
+            long[] outLinks = new long[edges.size];
+            int[] inSources = new int[edges.size];
+            long[] inLinks = new long[edges.size];
+            int[] outFill = Arrays.copyOf(outOffsets, nodes.length);
+            int[] inFill = Arrays.copyOf(inOffsets, nodes.length);
+            for (int e = 0; e < edges.size; e++) {
+                int out = outFill[sourceIndex[e]]++;
+                outTargets[out] = targetIndex[e];
+                outLinks[out] = edges.links[e];
+                int in = inFill[targetIndex[e]]++;
+                inSources[in] = sourceIndex[e];
+                inLinks[in] = edges.links[e];
+            }
+            return new Csr(nodes, outOffsets, outTargets, outLinks, inOffsets, inSources, inLinks);
+        }
+
+        // Sosedi brez povezav, ki jih je delta odstranila
+        long[] neighbours(long node, boolean outgoing, LinkIdSet removed) {
+            int index = Arrays.binarySearch(nodes, node);
+            if (index < 0) {
+                return new long[0];
+            }
+            int[] offsets = outgoing ? outOffsets : inOffsets;
+            int[] adjacency = outgoing ? outTargets : inSources;
+            long[] links = outgoing ? outLinks : inLinks;
+            long[] neighbours = new long[offsets[index + 1] - offsets[index]];
+            int count = 0;
+            for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+                if (removed.size() == 0 || !removed.contains(links[i])) {
+                    neighbours[count++] = nodes[adjacency[i]];
+                }
+            }
+            return count == neighbours.length ? neighbours : Arrays.copyOf(neighbours, count);
+        }
+
+        boolean contains(long link, long source) {
+            int index = Arrays.binarySearch(nodes, source);
+            if (index < 0) {
+                return false;
+            }
+            for (int i = outOffsets[index]; i < outOffsets[index + 1]; i++) {
+                if (outLinks[i] == link) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int edgeCount() {
+            return outTargets.length;
+        }
+
+        long memoryFootprint() {
+            return 8L * nodes.length + 4L * (outOffsets.length + inOffsets.length + outTargets.length + inSources.length)
+                    + 8L * (outLinks.length + inLinks.length);
+        }
+
+    }
+
+    // Rastoča trojica primitivnih polj (id povezave, izvor, cilj) za gradnjo CSR
+    static final class EdgeList {
+
+        long[] links;
+
+        long[] sources;
+
+        long[] targets;
+
+        int size;
+
+        EdgeList(int capacity) {
+            links = new long[capacity];
+            sources = new long[capacity];
+            targets = new long[capacity];
+        }
+
+        void add(long link, long source, long target) {
+            if (size == sources.length) {
+                int capacity = Math.max(16, size * 2);
+                links = Arrays.copyOf(links, capacity);
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            links[size] = link;
+            sources[size] = source;
+            targets[size] = target;
+            size++;
+        }
+
+    }
+
+    // Rastoče polje long vrednosti; vrsta vozlišč pri iskanju
+    private static final class LongList {
+
+        long[] values;
+
+        int size;
+
+        LongList(int capacity) {
+            values = new long[capacity];
+        }
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, size * 2));
+            }
+            values[size++] = value;
+        }
+
+    }
+
+    // Množica long vrednosti z odprtim naslavljanjem, brez pakiranja v Long; obiskana vozlišča enega iskanja
+    private static final class LongSet {
+
+        private long[] slots;
+
+        private boolean[] used;
+
+        private int size;
+
+        LongSet(int capacity) {
+            slots = new long[capacity];
+            used = new boolean[capacity];
+        }
+
+        boolean add(long value) {
+            if (size * 2 >= slots.length) {
+                grow();
+            }
+            int mask = slots.length - 1;
+            int slot = hash(value) & mask;
+            while (used[slot]) {
+                if (slots[slot] == value) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            slots[slot] = value;
+            size++;
+            return true;
+        }
+
+        boolean contains(long value) {
+            int mask = slots.length - 1;
+            int slot = hash(value) & mask;
+            while (used[slot]) {
+                if (slots[slot] == value) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private void grow() {
+            long[] oldSlots = slots;
+            boolean[] oldUsed = used;
+            slots = new long[oldSlots.length * 2];
+            used = new boolean[oldSlots.length * 2];
+            size = 0;
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldUsed[i]) {
+                    add(oldSlots[i]);
+                }
+            }
+        }
+
+    }
+
+    /*
+     * Rezultat iskanja: vozlišča v vrstnem redu odkritja in njihove razdalje v vzporednih poljih.
+     * V Long in Integer se pretvori šele na meji DTO, s toMap.
+     */
+    public static final class Traversal {
+
+        private long[] nodes = new long[16];
+
+        private int[] distances = new int[16];
+
+        private int size;
+
+        void add(long node, int distance) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            nodes[size] = node;
+            distances[size] = distance;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long node(int index) {
+            return nodes[index];
+        }
+
+        public int distance(int index) {
+            return distances[index];
+        }
+
+        public Map<Long, Integer> toMap() {
+            Map<Long, Integer> map = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                map.put(nodes[i], distances[i]);
+            }
+            return map;
+        }
+
+    }
+
+    // Obiskovalec vnosov LongArrayMap brez pakiranja ključa
+    private interface LongArrayConsumer {
+
+        void accept(long key, long[] value);
+
+    }
+
+    /*
+     * Preslikava long -> long[] z odprtim naslavljanjem za delto. Piše samo nit z zaklepom indeksa, bralci berejo
+     * brez zaklepa: ključ se zapiše pred vrednostjo, vrednost pa z volatile zapisom, zato bralec, ki vidi vrednost,
+     * vidi tudi ključ. Povečana tabela se objavi v celoti. Odstranjen ključ ostane kot nagrobnik s praznim poljem,
+     * da se veriga iskanja ne pretrga; nagrobnike počisti povečanje tabele ali zlivanje, ki začne z novo delto.
+     */
+    private static final class LongArrayMap {
+
+        private static final long[] REMOVED = new long[0];
+
+        private static final class Table {
+
+            final long[] keys;
+
+            final AtomicReferenceArray<long[]> values;
+
+            Table(int capacity) {
+                keys = new long[capacity];
+                values = new AtomicReferenceArray<>(capacity);
+            }
+
+        }
+
+        private volatile Table table;
+
+        // Zasedene reže, skupaj z nagrobniki
+        private int used;
+
+        private int size;
+
+        LongArrayMap(int capacity) {
+            table = new Table(capacity);
+        }
+
+        long[] get(long key) {
+            Table current = table;
+            int mask = current.keys.length - 1;
+            int slot = hash(key) & mask;
+            long[] value;
+            while ((value = current.values.get(slot)) != null) {
+                if (current.keys[slot] == key) {
+                    return value == REMOVED ? null : value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        // Prazno polje odstrani ključ
+        void put(long key, long[] value) {
+            boolean remove = value.length == 0;
+            Table current = table;
+            int mask = current.keys.length - 1;
+            int slot = hash(key) & mask;
+            long[] existing;
+            while ((existing = current.values.get(slot)) != null) {
+                if (current.keys[slot] == key) {
+                    if (existing == REMOVED && !remove) {
+                        size++;
+                    } else if (existing != REMOVED && remove) {
+                        size--;
+                    }
+                    current.values.set(slot, remove ? REMOVED : value);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (remove) {
+                return;
+            }
+            if ((used + 1) * 2 > current.keys.length) {
+                resize(Math.max(16, Integer.highestOneBit(size + 1) * 4));
+                put(key, value);
+                return;
+            }
+            current.keys[slot] = key;
+            current.values.set(slot, value);
+            used++;
+            size++;
+        }
+
+        void forEach(LongArrayConsumer consumer) {
+            Table current = table;
+            for (int slot = 0; slot < current.keys.length; slot++) {
+                long[] value = current.values.get(slot);
+                if (value != null && value != REMOVED) {
+                    consumer.accept(current.keys[slot], value);
+                }
+            }
+        }
+
+        long memoryFootprint() {
+            Table current = table;
+            long bytes = 12L * current.keys.length;
+            for (int slot = 0; slot < current.keys.length; slot++) {
+                long[] value = current.values.get(slot);
+                if (value != null) {
+                    bytes += 8L * value.length;
+                }
+            }
+            return bytes;
+        }
+
+        private void resize(int capacity) {
+            Table old = table;
+            Table resized = new Table(capacity);
+            int mask = capacity - 1;
+            for (int i = 0; i < old.keys.length; i++) {
+                long[] value = old.values.get(i);
+                if (value == null || value == REMOVED) {
+                    continue;
+                }
+                int slot = hash(old.keys[i]) & mask;
+                while (resized.values.get(slot) != null) {
+                    slot = (slot + 1) & mask;
+                }
+                resized.keys[slot] = old.keys[i];
+                resized.values.set(slot, value);
+            }
+            used = size;
+            table = resized;
+        }
+
+    }
+
+    /*
+     * Id-ji povezav iz CSR, ki jih je delta odstranila. Kot LongArrayMap: piše nit z zaklepom, bralci berejo brez
+     * zaklepa. Reža je en long, 0 pomeni prazno (id-ji povezav iz sekvence so pozitivni), zato zadostuje en
+     * volatile zapis. Id-ji se ne odstranjujejo, množico počisti zlivanje.
+     */
+    private static final class LinkIdSet {
+
+        private volatile AtomicLongArray slots;
+
+        private volatile int size;
+
+        LinkIdSet(int capacity) {
+            slots = new AtomicLongArray(capacity);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(long id) {
+            if ((size + 1) * 2 > slots.length()) {
+                AtomicLongArray old = slots;
+                AtomicLongArray resized = new AtomicLongArray(old.length() * 2);
+                for (int i = 0; i < old.length(); i++) {
+                    if (old.get(i) != 0) {
+                        insert(resized, old.get(i));
+                    }
+                }
+                slots = resized;
+            }
+            if (insert(slots, id)) {
+                size++;
+            }
+        }
+
+        boolean contains(long id) {
+            AtomicLongArray current = slots;
+            int mask = current.length() - 1;
+            int slot = hash(id) & mask;
+            long value;
+            while ((value = current.get(slot)) != 0) {
+                if (value == id) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        long memoryFootprint() {
+            return 8L * slots.length();
+        }
+
+        private static boolean insert(AtomicLongArray slots, long id) {
+            int mask = slots.length() - 1;
+            int slot = hash(id) & mask;
+            long value;
+            while ((value = slots.get(slot)) != 0) {
+                if (value == id) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots.set(slot, id);
+            return true;
+        }
+
+    }
+
+    private static int hash(long value) {
+        return Long.hashCode(value * 0x9E3779B97F4A7C15L);
+    }
+
+}
@@ -0,0 +1,375 @@
+package org.asset.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.TransactionManager;
+import org.asset.dto.AssetLinkDto;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Zgodovina sprememb assetov (tabela assethistory), zapisana mimo poti zahteve.
+ * after-commit: po commitu gre sprememba v omejeno vrsto, ozadna nit jo zapiše v večvrstičnem insertu skupaj
+ * z ostalimi; polna vrsta zadrži pisca do offer-timeout (povratni pritisk), nato se vrstica zavrže in prešteje.
+ * Ob padcu procesa se izgubijo vrstice, ki so še v vrsti.
+ * before-commit: vrstice istega dogodka se vstavijo z enim stavkom v transakciji spremembe, tik pred commitom;
+ * zgodovina je tako atomarna s spremembo, zahteva pa plača en dodaten stavek. Neuspel insert transakcijo označi
+ * za rollback, ker CDI izjemo transakcijskega opazovalca samo zapiše v log.
+ * Reaktivni endpointi nimajo JTA transakcije: njihove spremembe gredo tudi v before-commit načinu v vrsto po commitu.
+ * Details vsebujejo spremenjena polja asseta (naslov, atributi) in dodane ter odstranjene povezave.
+ */
+@ApplicationScoped
+public class AssetHistoryWriter {
+
+    private static final Logger LOG = Logger.getLogger(AssetHistoryWriter.class);
+
+    private static final String INSERT = "INSERT INTO assethistory (assetid, changetype, details, changedat) VALUES ";
+
+    private static final String ROW = "(?, ?, ?, ?)";
+
+    public enum Durability {
+        AFTER_COMMIT, BEFORE_COMMIT
+    }
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    TransactionManager transactionManager;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "asset.history.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "asset.history.durability", defaultValue = "after-commit")
+    Durability durability;
+
+    @ConfigProperty(name = "asset.history.queue-size", defaultValue = "10000")
+    int queueSize;
+
+    @ConfigProperty(name = "asset.history.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "asset.history.flush-interval", defaultValue = "200ms")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "asset.history.offer-timeout", defaultValue = "1s")
+    Duration offerTimeout;
+
+    @ConfigProperty(name = "asset.history.max-retries", defaultValue = "3")
+    int maxRetries;
+
+    private BlockingQueue<Entry> queue;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    private final AtomicBoolean fallbackLogged = new AtomicBoolean();
+
+    private Counter droppedEntries;
+
+    private Counter retriedBatches;
+
+    private Counter failedEntries;
+
+    private record Entry(Long assetId, String type, String details, Instant changedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueSize);
+        Gauge.builder("asset.history.queue", queue, BlockingQueue::size)
+                .description("Asset history entries waiting for the background writer")
+                .register(meterRegistry);
+        droppedEntries = Counter.builder("asset.history.dropped")
+                .description("Asset history entries dropped because the queue stayed full")
+                .register(meterRegistry);
+        retriedBatches = Counter.builder("asset.history.retried")
+                .description("Asset history batch inserts that failed and were retried")
+                .register(meterRegistry);
+        failedEntries = Counter.builder("asset.history.failed")
+                .description("Asset history entries dropped because their insert kept failing")
+                .register(meterRegistry);
+
+        running = true;
+        writer = Thread.ofPlatform().name("asset-history-writer").daemon().start(this::run);
+    }
+
+    // Ob zaustavitvi nit izprazni vrsto do konca
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(Duration.ofSeconds(10).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Brez JTA transakcije (reaktivni endpointi, dogodek po commitu) CDI pokliče oba opazovalca takoj;
+     * takrat gre dogodek v vrsto v obeh načinih, in sicer le iz opazovalca za nastavljeni način.
+     */
+    void beforeCommit(@Observes(during = TransactionPhase.BEFORE_COMPLETION) AssetChangedEvent event) {
+        if (!enabled || durability != Durability.BEFORE_COMMIT) {
+            return;
+        }
+        if (!transactionActive()) {
+            if (fallbackLogged.compareAndSet(false, true)) {
+                LOG.warn("Asset change without a JTA transaction (reactive endpoint): before-commit history is " +
+                        "written after commit through the queue");
+            }
+            enqueue(event);
+            return;
+        }
+        // V paketih kot ozadna nit: velika sprememba povezav bi sicer presegla mejo parametrov enega stavka
+        try (Connection connection = dataSource.getConnection()) {
+            List<Entry> entries = entries(event);
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                insert(connection, entries.subList(from, Math.min(entries.size(), from + batchSize)));
+            }
+        } catch (SQLException | RuntimeException e) {
+            setRollbackOnly();
+            throw new IllegalStateException("Asset history insert failed", e);
+        }
+    }
+
+    void afterCommit(@Observes(during = TransactionPhase.AFTER_SUCCESS) AssetChangedEvent event) {
+        if (enabled && durability == Durability.AFTER_COMMIT) {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(AssetChangedEvent event) {
+        try {
+            for (Entry entry : entries(event)) {
+                if (!queue.offer(entry, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    droppedEntries.increment();
+                    LOG.warnf("Asset history queue full, dropped %s of asset %d", entry.type(), entry.assetId());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void setRollbackOnly() {
+        try {
+            transactionManager.setRollbackOnly();
+        } catch (SystemException | IllegalStateException e) {
+            LOG.error("Could not mark the transaction for rollback after a failed asset history insert", e);
+        }
+    }
+
+    private boolean transactionActive() {
+        try {
+            return transactionManager.getStatus() == Status.STATUS_ACTIVE;
+        } catch (SystemException e) {
+            return false;
+        }
+    }
+
+    /*
+     * Spremenjeni asset in, kot pri AssetChangeFeed, še oba konca vsake dodane ali odstranjene povezave.
+     * Spremenjena polja gredo le v vrstico spremenjenega asseta, drugi konci povezav dobijo samo povezave.
+     */
+    private List<Entry> entries(AssetChangedEvent event) {
+        Instant now = Instant.now();
+        String linkDetails = details(null, event);
+        List<Entry> entries = new ArrayList<>();
+        Set<Long> assetIds = new HashSet<>();
+        if (event.getAssetId() != null) {
+            assetIds.add(event.getAssetId());
+            entries.add(new Entry(event.getAssetId(), event.getType().name(), details(event.getFieldChanges(), event), now));
+        }
+        for (List<AssetLinkDto> links : List.of(event.getAddedLinks(), event.getRemovedLinks())) {
+            for (AssetLinkDto link : links) {
+                for (Long assetId : List.of(link.getSourceAssetId(), link.getTargetAssetId())) {
+                    if (assetIds.add(assetId)) {
+                        entries.add(new Entry(assetId, AssetChangedEvent.Type.LINKS_CHANGED.name(), linkDetails, now));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    // Naslov kot {from, to}, atributi in povezave le, če niso prazni; null, če se ni spremenilo nič
+    private String details(AssetFieldChanges fieldChanges, AssetChangedEvent event) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        if (fieldChanges != null) {
+            if (fieldChanges.isTitleChanged()) {
+                Map<String, String> title = new LinkedHashMap<>();
+                title.put("from", fieldChanges.getOldTitle());
+                title.put("to", fieldChanges.getNewTitle());
+                details.put("title", title);
+            }
+            putIfNotEmpty(details, "addedAttributes", fieldChanges.getAddedAttributes());
+            putIfNotEmpty(details, "removedAttributes", fieldChanges.getRemovedAttributes());
+        }
+        putIfNotEmpty(details, "addedLinks", event.getAddedLinks());
+        putIfNotEmpty(details, "removedLinks", event.getRemovedLinks());
+        if (details.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(details);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void putIfNotEmpty(Map<String, Object> details, String key, List<?> values) {
+        if (!values.isEmpty()) {
+            details.put(key, values);
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                // Zaustavitev: zanka se nadaljuje, dokler vrsta ni prazna
+                queue.drainTo(batch, batchSize);
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /*
+     * Prekinjena povezava (SQLState razreda 08, prehodne napake, pool brez proste povezave, ki SQLState nima)
+     * se ponavlja, dokler pisec teče. Druge napake (kršena omejitev, izbrisan asset) bi se ponavljale v nedogled
+     * in ustavile vso zgodovino, zato ima paket max-retries ponovitev; nato se vrstice vstavijo posamič,
+     * vrstica, ki še vedno pade, pa se zapiše v log, prešteje v asset.history.failed in preskoči.
+     */
+    private void write(List<Entry> batch) {
+        int retries = 0;
+        while (true) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (retries < maxRetries) {
+                    insert(connection, batch);
+                } else {
+                    insertEach(connection, batch);
+                }
+                return;
+            } catch (SQLException e) {
+                if (!running) {
+                    failedEntries.increment(batch.size());
+                    LOG.errorf(e, "Dropping %d asset history entries on shutdown", batch.size());
+                    return;
+                }
+                retriedBatches.increment();
+                if (transientFailure(e)) {
+                    LOG.warnf(e, "Asset history batch of %d entries failed on the connection, retrying", batch.size());
+                } else {
+                    retries++;
+                    LOG.warnf(e, "Asset history batch of %d entries failed (attempt %d of %d)",
+                            batch.size(), retries, maxRetries);
+                }
+                try {
+                    Thread.sleep(flushInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // Zapisane vrstice se odstranijo iz paketa, da jih ponovitev po prekinjeni povezavi ne vstavi dvakrat
+    private void insertEach(Connection connection, List<Entry> batch) throws SQLException {
+        int written = 0;
+        try {
+            for (Entry entry : batch) {
+                try {
+                    insert(connection, List.of(entry));
+                } catch (SQLException e) {
+                    if (transientFailure(e)) {
+                        throw e;
+                    }
+                    failedEntries.increment();
+                    LOG.errorf(e, "Dropped asset history entry %s of asset %d", entry.type(), entry.assetId());
+                }
+                written++;
+            }
+        } finally {
+            batch.subList(0, written).clear();
+        }
+    }
+
+    private static boolean transientFailure(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientException
+                || e instanceof SQLRecoverableException
+                || state == null
+                || state.startsWith("08");
+    }
+
+    private static void insert(Connection connection, List<Entry> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(INSERT.length() + entries.size() * (ROW.length() + 2)).append(INSERT);
+        for (int i = 0; i < entries.size(); i++) {
+            sql.append(i == 0 ? ROW : ", " + ROW);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int parameter = 1;
+            for (Entry entry : entries) {
+                statement.setLong(parameter++, entry.assetId());
+                statement.setString(parameter++, entry.type());
+                statement.setString(parameter++, entry.details());
+                statement.setTimestamp(parameter++, Timestamp.from(entry.changedAt()));
+            }
+            statement.executeUpdate();
+        }
+    }
+
+}
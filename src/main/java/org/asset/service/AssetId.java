@@ -0,0 +1,12 @@
+package org.asset.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Parameter bralne metode z id-jem asseta ali seznamom id-jev; po njem ReadRouting odloči za read-your-writes
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AssetId {
+}
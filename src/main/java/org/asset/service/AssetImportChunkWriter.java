@@ -0,0 +1,131 @@
+package org.asset.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetLinkDto;
+import org.asset.dto.ImportRejectionDto;
+import org.asset.model.Asset;
+import org.asset.model.AssetAttribute;
+import org.asset.model.AssetLink;
+import org.asset.repository.AssetRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Zapiše en kos uvoza v svoji transakciji; inserti gredo v JDBC batch-e
+@ApplicationScoped
+public class AssetImportChunkWriter {
+
+    @Inject
+    AssetRepository assetRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    Event<AssetChangedEvent> assetChanged;
+
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public List<ImportRejectionDto> writeChunk(List<AssetImportRow> rows) {
+        List<ImportRejectionDto> rejections = new ArrayList<>();
+        Set<Long> existingIds = assetRepository.findExistingIds(referencedAssetIds(rows));
+        Set<Long> linkedIds = new HashSet<>();
+
+        for (AssetImportRow row : rows) {
+            String reason = validate(row.getAsset(), existingIds);
+            if (reason != null) {
+                rejections.add(new ImportRejectionDto(row.getRow(), reason));
+                continue;
+            }
+            persist(row.getAsset(), linkedIds);
+        }
+
+        // Obstoječi asseti z novimi povezavami dobijo novo verzijo kot pri createAsset; cache izloči AssetService
+        if (!linkedIds.isEmpty()) {
+            assetRepository.incrementVersions(linkedIds);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return rejections;
+    }
+
+    private void persist(AssetDto assetDto, Set<Long> linkedIds) {
+        Asset asset = new Asset();
+        asset.setTitle(assetDto.getTitle());
+
+        for (AssetAttributeDto attributeDto : nullToEmpty(assetDto.getAttributes())) {
+            AssetAttribute attribute = AssetMapper.mapToEntity(attributeDto);
+            entityManager.persist(attribute);
+            asset.getAttributes().add(attribute);
+        }
+
+        for (AssetLinkDto linkDto : nullToEmpty(assetDto.getOutgoingLinks())) {
+            AssetLink link = new AssetLink();
+            link.setSourceAsset(asset);
+            link.setTargetAsset(entityManager.getReference(Asset.class, linkDto.getTargetAssetId()));
+            asset.getOutgoingLinks().add(link);
+            linkedIds.add(linkDto.getTargetAssetId());
+        }
+        for (AssetLinkDto linkDto : nullToEmpty(assetDto.getIncomingLinks())) {
+            AssetLink link = new AssetLink();
+            link.setSourceAsset(entityManager.getReference(Asset.class, linkDto.getSourceAssetId()));
+            link.setTargetAsset(asset);
+            asset.getIncomingLinks().add(link);
+            linkedIds.add(linkDto.getSourceAssetId());
+        }
+
+        entityManager.persist(asset);
+
+        List<AssetLink> links = new ArrayList<>(asset.getOutgoingLinks());
+        links.addAll(asset.getIncomingLinks());
+        assetChanged.fire(new AssetChangedEvent(asset.getId(), AssetChangedEvent.Type.CREATED,
+                AssetChangedEvent.links(links), List.of(),
+                AssetFieldChanges.created(asset.getTitle(), nullToEmpty(assetDto.getAttributes()))));
+    }
+
+    private String validate(AssetDto asset, Set<Long> existingIds) {
+        if (asset.getTitle() == null || asset.getTitle().isBlank()) {
+            return "Missing title";
+        }
+        for (AssetLinkDto link : nullToEmpty(asset.getOutgoingLinks())) {
+            if (!existingIds.contains(link.getTargetAssetId())) {
+                return "Unknown target asset " + link.getTargetAssetId();
+            }
+        }
+        for (AssetLinkDto link : nullToEmpty(asset.getIncomingLinks())) {
+            if (!existingIds.contains(link.getSourceAssetId())) {
+                return "Unknown source asset " + link.getSourceAssetId();
+            }
+        }
+        return null;
+    }
+
+    private Set<Long> referencedAssetIds(List<AssetImportRow> rows) {
+        Set<Long> ids = new HashSet<>();
+        for (AssetImportRow row : rows) {
+            for (AssetLinkDto link : nullToEmpty(row.getAsset().getOutgoingLinks())) {
+                if (link.getTargetAssetId() != null) {
+                    ids.add(link.getTargetAssetId());
+                }
+            }
+            for (AssetLinkDto link : nullToEmpty(row.getAsset().getIncomingLinks())) {
+                if (link.getSourceAssetId() != null) {
+                    ids.add(link.getSourceAssetId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+}
@@ -0,0 +1,16 @@
+package org.asset.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.asset.dto.AssetDto;
+
+// En asset iz uvozne datoteke skupaj s številko vrstice, na kateri se začne
+@Getter
+@AllArgsConstructor
+class AssetImportRow {
+
+    private final long row;
+
+    private final AssetDto asset;
+
+}
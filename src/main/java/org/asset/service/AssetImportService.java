@@ -0,0 +1,208 @@
+package org.asset.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.dto.ImportRejectionDto;
+import org.asset.dto.ImportReportDto;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+// Množični uvoz: vrstice se berejo sproti in zapisujejo po kosih, vsak kos v svoji transakciji
+@ApplicationScoped
+public class AssetImportService {
+
+    private static final Logger LOG = Logger.getLogger(AssetImportService.class);
+
+    @Inject
+    AssetImportChunkWriter chunkWriter;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "asset.import.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    public ImportReportDto importNdjson(InputStream input) throws IOException {
+        ImportPipeline pipeline = new ImportPipeline();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                pipeline.add(new AssetImportRow(lineNumber, objectMapper.readValue(line, AssetDto.class)));
+            } catch (JsonProcessingException e) {
+                pipeline.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        return pipeline.finish();
+    }
+
+    // Prebere prvi list v postavitvi izvoza več assetov (AssetExcelWriter.ASSET_HEADERS)
+    public ImportReportDto importExcel(InputStream input) throws IOException {
+        ImportPipeline pipeline = new ImportPipeline();
+
+        try (OPCPackage excelPackage = OPCPackage.open(input)) {
+            XSSFReader reader = new XSSFReader(excelPackage);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                            new ReadOnlySharedStringsTable(excelPackage), new ExcelRowHandler(pipeline),
+                            new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Invalid Excel file: " + e.getMessage(), e);
+        }
+
+        return pipeline.finish();
+    }
+
+    private class ImportPipeline {
+
+        private final long start = System.nanoTime();
+
+        private final ImportReportDto report = new ImportReportDto();
+
+        private final List<AssetImportRow> chunk = new ArrayList<>(chunkSize);
+
+        void add(AssetImportRow row) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String reason) {
+            report.getRejections().add(new ImportRejectionDto(row, reason));
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                List<ImportRejectionDto> rejections = chunkWriter.writeChunk(chunk);
+                report.getRejections().addAll(rejections);
+                report.setImported(report.getImported() + chunk.size() - rejections.size());
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Import chunk starting at row %d was rolled back", chunk.get(0).getRow());
+                for (AssetImportRow row : chunk) {
+                    reject(row.getRow(), "Chunk rolled back: " + e.getMessage());
+                }
+            }
+            chunk.clear();
+        }
+
+        ImportReportDto finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - start;
+            report.setRejected(report.getRejections().size());
+            report.setElapsedMillis(elapsedNanos / 1_000_000);
+            report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getImported() * 1_000_000_000.0 / elapsedNanos);
+            return report;
+        }
+
+    }
+
+    // Zaporedne vrstice z istim "Asset ID" (ali naslovom, če id manjka) tvorijo en asset
+    private static class ExcelRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final ImportPipeline pipeline;
+
+        private final String[] cells = new String[AssetExcelWriter.ASSET_HEADERS.length];
+
+        private String currentKey;
+
+        private AssetImportRow current;
+
+        ExcelRowHandler(ImportPipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (column < cells.length) {
+                cells[column] = formattedValue == null || formattedValue.isBlank() ? null : formattedValue.trim();
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) {
+                return;
+            }
+
+            String key = cells[0] != null ? cells[0] : cells[1];
+            if (current == null || key == null || !key.equals(currentKey)) {
+                if (current != null) {
+                    pipeline.add(current);
+                }
+                AssetDto asset = new AssetDto(null, cells[1]);
+                current = new AssetImportRow(rowNum + 1, asset);
+                currentKey = key;
+            }
+
+            if (cells[2] != null) {
+                AssetAttributeDto attribute = new AssetAttributeDto();
+                attribute.setName(cells[2]);
+                attribute.setType(cells[3]);
+                attribute.setRequired(Boolean.parseBoolean(cells[4]));
+                attribute.setMinValue(cells[5]);
+                attribute.setMaxValue(cells[6]);
+                current.getAsset().getAttributes().add(attribute);
+            }
+        }
+
+        @Override
+        public void endSheet() {
+            if (current != null) {
+                pipeline.add(current);
+                current = null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package org.asset.service;
+
+import lombok.Getter;
+import org.asset.dto.AssetLinkDto;
+import org.asset.model.AssetLink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Razlika med obstoječimi in želenimi povezavami na eni strani asseta, po id-ju in paru (izvor, cilj)
+@Getter
+public class AssetLinkDiff {
+
+    private final List<AssetLink> removed = new ArrayList<>();
+
+    private final List<AssetLinkDto> added = new ArrayList<>();
+
+    private AssetLinkDiff() {
+    }
+
+    /*
+     * outgoing: povezave, kjer je asset izvor; sicer povezave, kjer je cilj.
+     * Želene povezave se normalizirajo tako, da je asset vedno na svoji strani.
+     */
+    public static AssetLinkDiff compute(Long assetId, boolean outgoing, List<AssetLink> existing, List<AssetLinkDto> desired) {
+        AssetLinkDiff diff = new AssetLinkDiff();
+
+        Map<Long, AssetLink> byId = new HashMap<>();
+        Map<Long, Deque<AssetLink>> byOtherEnd = new HashMap<>();
+        for (AssetLink link : existing) {
+            byId.put(link.getId(), link);
+            byOtherEnd.computeIfAbsent(otherEnd(link, outgoing), key -> new ArrayDeque<>()).add(link);
+        }
+
+        Set<AssetLink> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<AssetLinkDto> unmatched = new ArrayList<>();
+        for (AssetLinkDto linkDto : desired) {
+            AssetLink match = linkDto.getId() == null ? null : byId.get(linkDto.getId());
+            Long otherEnd = outgoing ? linkDto.getTargetAssetId() : linkDto.getSourceAssetId();
+            if (match != null && (otherEnd == null || otherEnd.equals(otherEnd(match, outgoing))) && kept.add(match)) {
+                continue;
+            }
+            unmatched.add(linkDto);
+        }
+
+        // Povezave brez ujemajočega id-ja se primerjajo še po drugem koncu
+        for (AssetLinkDto linkDto : unmatched) {
+            Long otherEnd = outgoing ? linkDto.getTargetAssetId() : linkDto.getSourceAssetId();
+            Deque<AssetLink> candidates = byOtherEnd.get(otherEnd);
+            AssetLink match = null;
+            while (candidates != null && !candidates.isEmpty() && match == null) {
+                AssetLink candidate = candidates.poll();
+                if (kept.add(candidate)) {
+                    match = candidate;
+                }
+            }
+            if (match == null) {
+                diff.added.add(outgoing
+                        ? new AssetLinkDto(null, assetId, otherEnd)
+                        : new AssetLinkDto(null, otherEnd, assetId));
+            }
+        }
+
+        for (AssetLink link : existing) {
+            if (!kept.contains(link)) {
+                diff.removed.add(link);
+            }
+        }
+        return diff;
+    }
+
+    private static Long otherEnd(AssetLink link, boolean outgoing) {
+        if (outgoing) {
+            return link.getTargetAsset() == null ? null : link.getTargetAsset().getId();
+        }
+        return link.getSourceAsset() == null ? null : link.getSourceAsset().getId();
+    }
+
+}
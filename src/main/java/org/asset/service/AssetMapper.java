@@ -0,0 +1,95 @@
+package org.asset.service;
+
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetLinkDto;
+import org.asset.model.Asset;
+import org.asset.model.AssetAttribute;
+import org.asset.model.AssetLink;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Preslikave med entitetami in DTO-ji; brez stanja, da jih lahko merimo tudi izven Quarkusa (benchmarks/)
+public final class AssetMapper {
+
+    private AssetMapper() {
+    }
+
+    // Metode za preslikavo entitet v DTO-je
+    public static AssetDto mapToDto(Asset asset) {
+        AssetDto assetDto = new AssetDto();
+        assetDto.setId(asset.getId());
+        assetDto.setTitle(asset.getTitle());
+        assetDto.setAttributes(mapToDtoAttributeList(asset.getAttributes()));
+        assetDto.setOutgoingLinks(mapToDtoLinkList(asset.getOutgoingLinks()));
+        assetDto.setIncomingLinks(mapToDtoLinkList(asset.getIncomingLinks()));
+        assetDto.setVersion(asset.getVersion());
+        return assetDto;
+    }
+
+    public static List<AssetDto> mapToDtoList(List<Asset> assets) {
+        return assets.stream().map(AssetMapper::mapToDto).collect(Collectors.toList());
+    }
+
+    public static AssetAttributeDto mapToDto(AssetAttribute attribute) {
+        AssetAttributeDto attributeDto = new AssetAttributeDto();
+        attributeDto.setName(attribute.getName());
+        attributeDto.setType(attribute.getType());
+        attributeDto.setRequired(attribute.isRequired());
+        attributeDto.setMinValue(attribute.getMinValue());
+        attributeDto.setMaxValue(attribute.getMaxValue());
+        return attributeDto;
+    }
+
+    public static List<AssetAttributeDto> mapToDtoAttributeList(Collection<AssetAttribute> attributes) {
+        return attributes.stream().map(AssetMapper::mapToDto).collect(Collectors.toList());
+    }
+
+    public static AssetLinkDto mapToDto(AssetLink link) {
+        AssetLinkDto linkDto = new AssetLinkDto();
+        linkDto.setId(link.getId());
+        linkDto.setSourceAssetId(link.getSourceAsset().getId());
+        linkDto.setTargetAssetId(link.getTargetAsset().getId());
+        return linkDto;
+    }
+
+    public static List<AssetLinkDto> mapToDtoLinkList(List<AssetLink> links) {
+        return links.stream().map(AssetMapper::mapToDto).collect(Collectors.toList());
+    }
+
+    // Metode za preslikavo DTO-jev v entitete
+    public static Asset mapToEntity(AssetDto assetDto) {
+        Asset asset = new Asset();
+        asset.setTitle(assetDto.getTitle());
+        List<AssetAttributeDto> attributes = assetDto.getAttributes() == null ? List.of() : assetDto.getAttributes();
+        asset.setAttributes(new LinkedHashSet<>(mapToEntityAttributeList(attributes)));
+        return asset;
+    }
+
+    public static List<AssetAttribute> mapToEntityAttributeList(List<AssetAttributeDto> attributeDtos) {
+        return attributeDtos.stream().map(AssetMapper::mapToEntity).collect(Collectors.toList());
+    }
+
+    public static AssetAttribute mapToEntity(AssetAttributeDto attributeDto) {
+        AssetAttribute attribute = new AssetAttribute();
+        attribute.setName(attributeDto.getName());
+        attribute.setType(attributeDto.getType());
+        attribute.setRequired(attributeDto.isRequired());
+        attribute.setMinValue(attributeDto.getMinValue());
+        attribute.setMaxValue(attributeDto.getMaxValue());
+        return attribute;
+    }
+
+    // Konci povezave morajo biti že razrešeni v "assets" (glej AssetService.resolveAssets)
+    public static AssetLink mapToEntity(AssetLinkDto linkDto, Map<Long, Asset> assets) {
+        AssetLink link = new AssetLink();
+        link.setSourceAsset(assets.get(linkDto.getSourceAssetId()));
+        link.setTargetAsset(assets.get(linkDto.getTargetAssetId()));
+        return link;
+    }
+
+}
@@ -1,30 +1,59 @@
 package org.asset.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetBatchGetResultDto;
 import org.asset.dto.AssetDto;
+import org.asset.dto.AssetField;
+import org.asset.dto.AssetHistoryDto;
 import org.asset.dto.AssetLinkDto;
+import org.asset.dto.AssetPatchDto;
+import org.asset.dto.AssetSearchCriteria;
+import org.asset.dto.LinkBatchRequestDto;
+import org.asset.dto.LinkBatchResultDto;
 import org.asset.dto.ConnectedAssetDto;
 import org.asset.model.Asset;
 import org.asset.model.AssetAttribute;
 import org.asset.model.AssetLink;
 import org.asset.repository.AssetAttributeRepository;
+import org.asset.repository.AssetHistoryRepository;
 import org.asset.repository.AssetLinkRepository;
+import org.asset.repository.AssetQueryRepository;
 import org.asset.repository.AssetRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class AssetService {
@@ -37,260 +66,643 @@ public class AssetService {
     @Inject
     private AssetLinkRepository assetLinkRepository;
 
+    @Inject
+    private AssetQueryRepository assetQueryRepository;
+
+    @Inject
+    private AssetHistoryRepository assetHistoryRepository;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private AssetGraphIndex graphIndex;
+
+    @Inject
+    private Event<AssetChangedEvent> assetChanged;
+
+    @ConfigProperty(name = "asset.page.default-limit", defaultValue = "100")
+    int defaultPageLimit;
+
+    @ConfigProperty(name = "asset.page.max-limit", defaultValue = "1000")
+    int maxPageLimit;
 
-    public List<AssetDto> getAllAssets() {
-        List<Asset> assets = assetRepository.listAll();
-        return mapToDtoList(assets);
+    @ConfigProperty(name = "asset.batch-get.max-ids", defaultValue = "5000")
+    int maxBatchGetIds;
+
+    @ConfigProperty(name = "asset.stream.fetch-size", defaultValue = "200")
+    int streamFetchSize;
+
+    @ConfigProperty(name = "asset.export.row-window", defaultValue = "100")
+    int exportRowWindow;
+
+    @ConfigProperty(name = "asset.graph.max-depth", defaultValue = "10")
+    int maxTraversalDepth;
+
+    @ConfigProperty(name = "asset.graph.max-nodes", defaultValue = "10000")
+    int maxTraversalNodes;
+
+
+    @Transactional
+    @ReadOnly(replica = true)
+    public List<AssetDto> getAllAssets(Long after, Integer limit, Set<AssetField> fields) {
+        return assetQueryRepository.findPage(after, resolvePageLimit(limit), fields);
     }
 
-    public AssetDto getAssetById(Long id) {
-        Asset asset = assetRepository.findById(id);
-        if (asset == null) {
+    @Transactional
+    @ReadOnly(replica = true)
+    public List<AssetDto> searchAssets(AssetSearchCriteria criteria, Long after, Integer limit) {
+        if (criteria.isEmpty()) {
+            throw new BadRequestException("At least one search filter is required");
+        }
+        return assetQueryRepository.search(criteria, after, resolvePageLimit(limit));
+    }
+
+    public int resolvePageLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageLimit;
+        }
+        return Math.min(limit, maxPageLimit);
+    }
+
+    // Zapiše vse assete kot JSON array sproti, brez da bi celoten seznam držali v pomnilniku
+    @Transactional
+    @ReadOnly(replica = true)
+    public void streamAllAssets(OutputStream output) throws IOException {
+        try (Stream<AssetDto> assets = assetQueryRepository.streamAll(streamFetchSize);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.writeStartArray();
+            generator.flush();
+
+            List<AssetDto> chunk = new ArrayList<>(streamFetchSize);
+            Iterator<AssetDto> iterator = assets.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == streamFetchSize || !iterator.hasNext()) {
+                    assetQueryRepository.fillCollections(chunk);
+                    for (AssetDto assetDto : chunk) {
+                        generator.writeObject(assetDto);
+                    }
+                    generator.flush();
+                    chunk.clear();
+                }
+            }
+
+            generator.writeEndArray();
+        }
+    }
+
+    // Samo verzija, brez kolekcij in mapiranja; za ETag in If-None-Match. Bere z iste baze kot getAssetById
+    @Transactional
+    @ReadOnly(replica = true)
+    public long getAssetVersion(@AssetId Long id) {
+        return findVersion(id);
+    }
+
+    // Za If-Match pri PUT/PATCH vedno primarna baza: verzija se nato primerja z entiteto v transakciji spremembe
+    @Transactional
+    @ReadOnly
+    public long getCurrentAssetVersion(Long id) {
+        return findVersion(id);
+    }
+
+    private long findVersion(Long id) {
+        Long version = assetQueryRepository.findVersion(id);
+        if (version == null) {
+            throw new NotFoundException("Asset not found");
+        }
+        return version;
+    }
+
+    @Transactional
+    @ReadOnly(replica = true)
+    public AssetDto getAssetById(@AssetId Long id, Set<AssetField> fields) {
+        AssetDto assetDto = assetQueryRepository.findById(id, fields);
+        if (assetDto == null) {
             throw new NotFoundException("Asset not found");
         }
-        return mapToDto(asset);
+        return assetDto;
+    }
+
+    // Zgodovina sprememb iz assethistory; pri načinu after-commit se zadnje spremembe pokažejo z zamikom
+    @Transactional
+    @ReadOnly
+    public List<AssetHistoryDto> getAssetHistory(Long assetId, Long after, Integer limit) {
+        if (!assetRepository.exists(assetId)) {
+            throw new NotFoundException("Asset not found");
+        }
+        return assetHistoryRepository.findPage(assetId, after, resolvePageLimit(limit));
+    }
+
+    // Več assetov v enem klicu; vrstni red sledi zahtevi (podvojeni id-ji enkrat), manjkajoči se sporočijo
+    @Transactional
+    @ReadOnly(replica = true)
+    public AssetBatchGetResultDto getAssetsByIds(@AssetId List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("At least one asset id is required");
+        }
+        List<Long> requestedIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        requestedIds.remove(null);
+        if (requestedIds.size() > maxBatchGetIds) {
+            throw new BadRequestException("At most " + maxBatchGetIds + " asset ids are allowed");
+        }
+
+        Map<Long, AssetDto> found = new HashMap<>();
+        for (AssetDto assetDto : assetQueryRepository.findByIds(requestedIds)) {
+            found.put(assetDto.getId(), assetDto);
+        }
+        AssetBatchGetResultDto result = new AssetBatchGetResultDto();
+        for (Long id : requestedIds) {
+            AssetDto assetDto = found.get(id);
+            if (assetDto != null) {
+                result.getAssets().add(assetDto);
+            } else {
+                result.getMissingIds().add(id);
+            }
+        }
+        return result;
     }
 
     @Transactional
     public Response createAsset(AssetDto assetDto) {
-        Asset asset = mapToEntity(assetDto);
+        Asset asset = AssetMapper.mapToEntity(assetDto);
 
         for (AssetAttribute attribute : asset.getAttributes()) {
             attributeRepository.persist(attribute);
         }
 
-        for (AssetLink link : asset.getOutgoingLinks()) {
-            assetLinkRepository.persist(link);
+        assetRepository.persist(asset);
+
+        // Novi asset je izvor izhodnih in cilj vhodnih povezav
+        List<AssetLinkDto> newLinks = new ArrayList<>();
+        for (AssetLinkDto linkDto : nullToEmpty(assetDto.getOutgoingLinks())) {
+            newLinks.add(new AssetLinkDto(null, asset.getId(), linkDto.getTargetAssetId()));
         }
-        for (AssetLink link : asset.getIncomingLinks()) {
-            assetLinkRepository.persist(link);
+        for (AssetLinkDto linkDto : nullToEmpty(assetDto.getIncomingLinks())) {
+            newLinks.add(new AssetLinkDto(null, linkDto.getSourceAssetId(), asset.getId()));
         }
+        List<AssetLink> links = createLinks(asset, newLinks);
+        List<AssetLinkDto> linkDtos = AssetChangedEvent.links(links);
+        incrementVersions(asset.getId(), linkDtos, List.of());
 
-        assetRepository.persist(asset);
+        assetChanged.fire(new AssetChangedEvent(asset.getId(), AssetChangedEvent.Type.CREATED,
+                linkDtos, List.of(), AssetFieldChanges.created(asset.getTitle(), nullToEmpty(assetDto.getAttributes()))));
 
-        return Response.status(Response.Status.CREATED).entity(mapToDto(asset)).build();
+        return Response.status(Response.Status.CREATED)
+                .entity(AssetMapper.mapToDto(asset))
+                .build();
     }
 
+    // expectedVersion iz If-Match; null pomeni brez preverjanja
     @Transactional
-    public Asset updateAsset(Long id, AssetDto updatedAsset) {
+    public Asset updateAsset(Long id, AssetDto updatedAsset, Long expectedVersion) {
         Asset asset = assetRepository.findById(id);
 
         if (asset == null) {
             throw new NotFoundException("Asset not found");
         }
+        checkVersion(asset, expectedVersion);
 
+        AssetFieldChanges fieldChanges = new AssetFieldChanges();
+        fieldChanges.title(asset.getTitle(), updatedAsset.getTitle());
         asset.setTitle(updatedAsset.getTitle());
 
-        List<AssetLink> updatedOutgoingLinks = mapToEntityLinkList(updatedAsset.getOutgoingLinks());
-        List<AssetLink> outgoingLinksToRemove = new ArrayList<>();
-        for (AssetLink existingOutgoingLink : asset.getOutgoingLinks()) {
-            if (!updatedOutgoingLinks.contains(existingOutgoingLink)) {
-                outgoingLinksToRemove.add(existingOutgoingLink);
-            }
-        }
-        asset.getOutgoingLinks().removeAll(outgoingLinksToRemove);
-        asset.getOutgoingLinks().addAll(updatedOutgoingLinks);
+        AssetLinkDiff outgoing = AssetLinkDiff.compute(asset.getId(), true,
+                asset.getOutgoingLinks(), nullToEmpty(updatedAsset.getOutgoingLinks()));
+        AssetLinkDiff incoming = AssetLinkDiff.compute(asset.getId(), false,
+                asset.getIncomingLinks(), nullToEmpty(updatedAsset.getIncomingLinks()));
 
-        List<AssetLink> updatedIncomingLinks = mapToEntityLinkList(updatedAsset.getIncomingLinks());
-        List<AssetLink> incomingLinksToRemove = new ArrayList<>();
-        for (AssetLink existingIncomingLink : asset.getIncomingLinks()) {
-            if (!updatedIncomingLinks.contains(existingIncomingLink)) {
-                incomingLinksToRemove.add(existingIncomingLink);
-            }
-        }
-        asset.getIncomingLinks().removeAll(incomingLinksToRemove);
-        asset.getIncomingLinks().addAll(updatedIncomingLinks);
+        List<AssetLink> removedLinks = new ArrayList<>(outgoing.getRemoved());
+        removedLinks.addAll(incoming.getRemoved());
+        List<AssetLinkDto> newLinks = new ArrayList<>(outgoing.getAdded());
+        newLinks.addAll(incoming.getAdded());
 
-        List<AssetAttribute> attributeList = mapToEntityAttributeList(updatedAsset.getAttributes());
-        List<AssetAttribute> savedAttributes = new ArrayList<>();
-        for (AssetAttribute attribute : attributeList) {
-            if (attribute.getId() == null) {
-                attributeRepository.persist(attribute);
-                savedAttributes.add(attribute);
+        List<AssetLinkDto> removedLinkDtos = deleteLinks(asset, removedLinks);
+        List<AssetLink> addedLinks = createLinks(asset, newLinks);
+
+        // Atributi se primerjajo po vrednosti; ostanejo obstoječi, dodajo se le novi
+        Map<List<Object>, Deque<AssetAttribute>> existingAttributes = new HashMap<>();
+        for (AssetAttribute attribute : asset.getAttributes()) {
+            existingAttributes.computeIfAbsent(attributeKey(AssetMapper.mapToDto(attribute)), key -> new ArrayDeque<>()).add(attribute);
+        }
+        Set<AssetAttribute> keptAttributes = new HashSet<>();
+        for (AssetAttributeDto attributeDto : nullToEmpty(updatedAsset.getAttributes())) {
+            Deque<AssetAttribute> matches = existingAttributes.get(attributeKey(attributeDto));
+            if (matches != null && !matches.isEmpty()) {
+                keptAttributes.add(matches.poll());
             } else {
-                savedAttributes.add(attribute);
+                AssetAttribute attribute = AssetMapper.mapToEntity(attributeDto);
+                attributeRepository.persist(attribute);
+                keptAttributes.add(attribute);
+                asset.getAttributes().add(attribute);
+                fieldChanges.getAddedAttributes().add(attributeDto);
+            }
+        }
+        for (AssetAttribute attribute : asset.getAttributes()) {
+            if (!keptAttributes.contains(attribute)) {
+                fieldChanges.getRemovedAttributes().add(AssetMapper.mapToDto(attribute));
             }
         }
-        asset.setAttributes(savedAttributes);
+        asset.getAttributes().retainAll(keptAttributes);
+
+        List<AssetLinkDto> addedLinkDtos = AssetChangedEvent.links(addedLinks);
+        incrementVersions(asset.getId(), addedLinkDtos, removedLinkDtos);
+        flushVersion();
+
+        assetChanged.fire(new AssetChangedEvent(asset.getId(), AssetChangedEvent.Type.UPDATED,
+                addedLinkDtos, removedLinkDtos, fieldChanges));
 
         return asset;
     }
 
     @Transactional
-    public Response addAssetAttribute(Long assetId, AssetAttributeDto attributeDto) {
-        Asset asset = assetRepository.findById(assetId);
+    public AssetDto patchAsset(Long id, AssetPatchDto patch, Long expectedVersion) {
+        Asset asset = assetRepository.findById(id);
 
         if (asset == null) {
             throw new NotFoundException("Asset not found");
         }
+        checkVersion(asset, expectedVersion);
 
-        AssetAttribute attribute = mapToEntity(attributeDto);
-        attributeRepository.persist(attribute);
+        AssetFieldChanges fieldChanges = new AssetFieldChanges();
+        if (patch.getTitle() != null) {
+            fieldChanges.title(asset.getTitle(), patch.getTitle());
+            asset.setTitle(patch.getTitle());
+        }
 
-        assetRepository.addAttributeToAsset(asset, attribute);
+        if (patch.getRemoveAttributes() != null) {
+            Set<String> names = new HashSet<>(patch.getRemoveAttributes());
+            asset.getAttributes().removeIf(attribute -> {
+                if (!names.contains(attribute.getName())) {
+                    return false;
+                }
+                fieldChanges.getRemovedAttributes().add(AssetMapper.mapToDto(attribute));
+                return true;
+            });
+        }
+        for (AssetAttributeDto attributeDto : nullToEmpty(patch.getAddAttributes())) {
+            AssetAttribute attribute = AssetMapper.mapToEntity(attributeDto);
+            attributeRepository.persist(attribute);
+            asset.getAttributes().add(attribute);
+            fieldChanges.getAddedAttributes().add(attributeDto);
+        }
 
-        return Response.status(Response.Status.CREATED).entity(mapToDto(asset)).build();
-    }
+        List<AssetLinkDto> removedLinkDtos = List.of();
+        if (patch.getRemoveLinkIds() != null) {
+            Set<Long> linkIds = new HashSet<>(patch.getRemoveLinkIds());
+            List<AssetLink> removedLinks = new ArrayList<>();
+            for (AssetLink link : asset.getOutgoingLinks()) {
+                if (linkIds.contains(link.getId())) {
+                    removedLinks.add(link);
+                }
+            }
+            for (AssetLink link : asset.getIncomingLinks()) {
+                if (linkIds.contains(link.getId())) {
+                    removedLinks.add(link);
+                }
+            }
+            removedLinkDtos = deleteLinks(asset, removedLinks);
+        }
 
-    public List<AssetAttributeDto> getAssetAttributes(Long assetId) {
-        Asset asset = assetRepository.findById(assetId);
-        if (asset == null) {
-            throw new NotFoundException("Asset not found");
+        List<AssetLinkDto> newLinks = new ArrayList<>();
+        for (AssetLinkDto linkDto : nullToEmpty(patch.getAddLinks())) {
+            Long source = linkDto.getSourceAssetId() == null ? asset.getId() : linkDto.getSourceAssetId();
+            Long target = linkDto.getTargetAssetId() == null ? asset.getId() : linkDto.getTargetAssetId();
+            if (!asset.getId().equals(source) && !asset.getId().equals(target)) {
+                throw new BadRequestException("Link must start or end at asset " + asset.getId());
+            }
+            newLinks.add(new AssetLinkDto(null, source, target));
         }
-        List<AssetAttribute> attributes = asset.getAttributes();
-        return mapToDtoAttributeList(attributes);
+        List<AssetLink> addedLinks = createLinks(asset, newLinks);
+
+        List<AssetLinkDto> addedLinkDtos = AssetChangedEvent.links(addedLinks);
+        incrementVersions(asset.getId(), addedLinkDtos, removedLinkDtos);
+        flushVersion();
+
+        assetChanged.fire(new AssetChangedEvent(asset.getId(), AssetChangedEvent.Type.UPDATED,
+                addedLinkDtos, removedLinkDtos, fieldChanges));
+
+        return AssetMapper.mapToDto(asset);
     }
 
-    public List<ConnectedAssetDto> getConnectedAssets(Long assetId) {
-        Asset asset = assetRepository.findById(assetId);
-        if (asset == null) {
-            throw new NotFoundException("Asset not found");
+    // Paketno ustvarjanje in brisanje povezav v eni transakciji; manjkajoči id-ji se sporočijo, ne prekinejo paketa
+    @Transactional
+    public LinkBatchResultDto batchLinks(LinkBatchRequestDto request) {
+        LinkBatchResultDto result = new LinkBatchResultDto();
+
+        List<Long> removeIds = new ArrayList<>(new LinkedHashSet<>(nullToEmpty(request.getRemove())));
+        List<AssetLinkDto> removedLinks = assetQueryRepository.findLinks(removeIds);
+        Set<Long> foundIds = new HashSet<>();
+        for (AssetLinkDto link : removedLinks) {
+            foundIds.add(link.getId());
+        }
+        for (Long id : removeIds) {
+            if (!foundIds.contains(id)) {
+                result.getMissingLinkIds().add(id);
+            }
+        }
+        assetLinkRepository.deleteByIds(new ArrayList<>(foundIds));
+        result.getRemoved().addAll(foundIds);
+
+        List<AssetLinkDto> createDtos = nullToEmpty(request.getCreate());
+        Set<Long> referencedIds = new HashSet<>();
+        for (AssetLinkDto linkDto : createDtos) {
+            if (linkDto.getSourceAssetId() != null) {
+                referencedIds.add(linkDto.getSourceAssetId());
+            }
+            if (linkDto.getTargetAssetId() != null) {
+                referencedIds.add(linkDto.getTargetAssetId());
+            }
+        }
+        Map<Long, Asset> assets = resolveAssets(referencedIds);
+        Set<Long> missingAssetIds = new LinkedHashSet<>();
+
+        List<AssetLink> createdLinks = new ArrayList<>(createDtos.size());
+        for (AssetLinkDto linkDto : createDtos) {
+            Asset source = assets.get(linkDto.getSourceAssetId());
+            Asset target = assets.get(linkDto.getTargetAssetId());
+            if (source == null || target == null) {
+                if (source == null && linkDto.getSourceAssetId() != null) {
+                    missingAssetIds.add(linkDto.getSourceAssetId());
+                }
+                if (target == null && linkDto.getTargetAssetId() != null) {
+                    missingAssetIds.add(linkDto.getTargetAssetId());
+                }
+                continue;
+            }
+            AssetLink link = AssetMapper.mapToEntity(linkDto, assets);
+            assetLinkRepository.persist(link);
+            createdLinks.add(link);
         }
-        List<AssetLink> outgoingLinks = asset.getOutgoingLinks();
-        List<AssetLink> incomingLinks = asset.getIncomingLinks();
+        result.getMissingAssetIds().addAll(missingAssetIds);
+        result.setCreated(AssetChangedEvent.links(createdLinks));
+        incrementVersions(null, result.getCreated(), removedLinks);
+
+        assetChanged.fire(new AssetChangedEvent(null, AssetChangedEvent.Type.LINKS_CHANGED,
+                result.getCreated(), removedLinks));
 
-        List<ConnectedAssetDto> connectedAssets = new ArrayList<>();
+        return result;
+    }
 
-        for (AssetLink outgoingLink : outgoingLinks) {
-            connectedAssets.add(mapToConnectedAssetDto(outgoingLink.getTargetAsset()));
+    private static void checkVersion(Asset asset, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(asset.getVersion())) {
+            throw new ClientErrorException("Asset was modified by another request", Response.Status.PRECONDITION_FAILED);
         }
+    }
 
-        for (AssetLink incomingLink : incomingLinks) {
-            connectedAssets.add(mapToConnectedAssetDto(incomingLink.getSourceAsset()));
+    // Flush znotraj metode, da sočasna sprememba postane 412 in ne napaka ob commitu
+    private void flushVersion() {
+        try {
+            assetRepository.flush();
+        } catch (OptimisticLockException e) {
+            throw new ClientErrorException("Asset was modified by another request", Response.Status.PRECONDITION_FAILED);
         }
+    }
 
-        return connectedAssets;
+    /*
+     * Povezava spremeni predstavitev obeh koncev. Urejani asset dobi novo verzijo sam, ker se mu spremenijo kolekcije;
+     * drugim koncem se verzija poveča z enim UPDATE stavkom namesto nalaganja in zaklepanja vsakega posebej.
+     */
+    private void incrementVersions(Long assetId, List<AssetLinkDto> addedLinks, List<AssetLinkDto> removedLinks) {
+        Set<Long> assetIds = linkEndpoints(addedLinks, removedLinks);
+        assetIds.remove(assetId);
+        if (!assetIds.isEmpty()) {
+            assetRepository.incrementVersions(assetIds);
+        }
     }
 
-    public Response exportAssetToExcel(Long assetId) {
-        Asset asset = assetRepository.findById(assetId);
+    // Bulk UPDATE verzij ne osveži second-level cache-a, zato se te vrstice po commitu izločijo
+    void evictIncrementedVersions(@Observes(during = TransactionPhase.AFTER_SUCCESS) AssetChangedEvent event) {
+        Set<Long> assetIds = linkEndpoints(event.getAddedLinks(), event.getRemovedLinks());
+        assetIds.remove(event.getAssetId());
+        for (Long id : assetIds) {
+            assetRepository.getEntityManager().getEntityManagerFactory().getCache().evict(Asset.class, id);
+        }
+    }
 
-        if (asset == null) {
-            throw new NotFoundException("Asset not found");
+    private static Set<Long> linkEndpoints(List<AssetLinkDto> addedLinks, List<AssetLinkDto> removedLinks) {
+        Set<Long> assetIds = new HashSet<>();
+        for (AssetLinkDto link : addedLinks) {
+            assetIds.add(link.getSourceAssetId());
+            assetIds.add(link.getTargetAssetId());
+        }
+        for (AssetLinkDto link : removedLinks) {
+            assetIds.add(link.getSourceAssetId());
+            assetIds.add(link.getTargetAssetId());
+        }
+        return assetIds;
+    }
+
+    // Vse povezave izbriše z enim DELETE stavkom in jih odstrani iz kolekcij asseta
+    private List<AssetLinkDto> deleteLinks(Asset asset, List<AssetLink> links) {
+        if (links.isEmpty()) {
+            return List.of();
         }
+        List<AssetLinkDto> linkDtos = AssetChangedEvent.links(links);
+        Set<AssetLink> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(links);
+        asset.getOutgoingLinks().removeIf(removed::contains);
+        asset.getIncomingLinks().removeIf(removed::contains);
+
+        List<Long> ids = links.stream().map(AssetLink::getId).collect(Collectors.toList());
+        assetLinkRepository.deleteByIds(ids);
+        return linkDtos;
+    }
 
-        List<AssetAttributeDto> assetDetails = asset.getAttributes().stream()
-                .map(attribute -> {
-                    AssetAttributeDto detailsDto = new AssetAttributeDto();
-                    detailsDto.setName(attribute.getName());
-                    detailsDto.setType(attribute.getType());
-                    detailsDto.setRequired(attribute.isRequired());
-                    detailsDto.setMinValue(attribute.getMinValue());
-                    detailsDto.setMaxValue(attribute.getMaxValue());
-                    return detailsDto;
-                })
-                .collect(Collectors.toList());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Asset Attributes");
-
-            Row headerRow = sheet.createRow(0);
-            headerRow.createCell(0).setCellValue("Attribute");
-            headerRow.createCell(1).setCellValue("Type");
-            headerRow.createCell(2).setCellValue("Required");
-            headerRow.createCell(3).setCellValue("Min value");
-            headerRow.createCell(4).setCellValue("Max value");
-
-            int rowNum = 1;
-            for (AssetAttributeDto detailsDto : assetDetails) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(detailsDto.getName());
-                row.createCell(1).setCellValue(detailsDto.getType());
-                row.createCell(2).setCellValue(detailsDto.isRequired());
-                row.createCell(3).setCellValue(detailsDto.getMinValue());
-                row.createCell(4).setCellValue(detailsDto.getMaxValue());
+    // Druge konce povezav razreši z eno IN poizvedbo, brez findById za vsako povezavo
+    private List<AssetLink> createLinks(Asset asset, List<AssetLinkDto> linkDtos) {
+        if (linkDtos.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> referencedIds = new HashSet<>();
+        for (AssetLinkDto linkDto : linkDtos) {
+            if (linkDto.getSourceAssetId() == null || linkDto.getTargetAssetId() == null) {
+                throw new BadRequestException("Link is missing its source or target asset");
             }
+            referencedIds.add(linkDto.getSourceAssetId());
+            referencedIds.add(linkDto.getTargetAssetId());
+        }
+        referencedIds.remove(asset.getId());
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            workbook.write(baos);
+        Map<Long, Asset> assets = resolveAssets(referencedIds);
+        referencedIds.removeAll(assets.keySet());
+        if (!referencedIds.isEmpty()) {
+            throw new BadRequestException("Linked assets not found: " + referencedIds);
+        }
+        assets.put(asset.getId(), asset);
 
-            return Response.ok(baos.toByteArray()).build();
-        } catch (IOException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        List<AssetLink> links = new ArrayList<>(linkDtos.size());
+        for (AssetLinkDto linkDto : linkDtos) {
+            AssetLink link = AssetMapper.mapToEntity(linkDto, assets);
+            assetLinkRepository.persist(link);
+            if (link.getSourceAsset() == asset) {
+                asset.getOutgoingLinks().add(link);
+            }
+            if (link.getTargetAsset() == asset) {
+                asset.getIncomingLinks().add(link);
+            }
+            links.add(link);
         }
+        return links;
     }
 
-    // Metode za preslikavo entitet v DTO-je
-    private AssetDto mapToDto(Asset asset) {
-        AssetDto assetDto = new AssetDto();
-        assetDto.setTitle(asset.getTitle());
-        assetDto.setAttributes(mapToDtoAttributeList(asset.getAttributes()));
-        assetDto.setOutgoingLinks(mapToDtoLinkList(asset.getOutgoingLinks()));
-        assetDto.setIncomingLinks(mapToDtoLinkList(asset.getIncomingLinks()));
-        return assetDto;
+    // Obstoječe assete vrne kot neinicializirane reference; manjkajočih id-jev v rezultatu ni
+    private Map<Long, Asset> resolveAssets(Set<Long> ids) {
+        Map<Long, Asset> assets = new HashMap<>();
+        for (Long id : assetRepository.findExistingIds(ids)) {
+            assets.put(id, assetRepository.getEntityManager().getReference(Asset.class, id));
+        }
+        return assets;
     }
 
-    private List<AssetDto> mapToDtoList(List<Asset> assets) {
-        return assets.stream().map(this::mapToDto).collect(Collectors.toList());
+    private static List<Object> attributeKey(AssetAttributeDto attribute) {
+        return Arrays.asList(attribute.getName(), attribute.getType(), attribute.isRequired(),
+                attribute.getMinValue(), attribute.getMaxValue());
     }
 
-    private AssetAttributeDto mapToDto(AssetAttribute attribute) {
-        AssetAttributeDto attributeDto = new AssetAttributeDto();
-        attributeDto.setName(attribute.getName());
-        attributeDto.setType(attribute.getType());
-        attributeDto.setRequired(attribute.isRequired());
-        attributeDto.setMinValue(attribute.getMinValue());
-        attributeDto.setMaxValue(attribute.getMaxValue());
-        return attributeDto;
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list == null ? List.of() : list;
     }
 
-    private List<AssetAttributeDto> mapToDtoAttributeList(List<AssetAttribute> attributes) {
-        return attributes.stream().map(this::mapToDto).collect(Collectors.toList());
-    }
+    @Transactional
+    public Response addAssetAttribute(Long assetId, AssetAttributeDto attributeDto) {
+        Asset asset = assetRepository.findById(assetId);
+
+        if (asset == null) {
+            throw new NotFoundException("Asset not found");
+        }
 
-    private AssetLinkDto mapToDto(AssetLink link) {
-        AssetLinkDto linkDto = new AssetLinkDto();
-        linkDto.setId(link.getId());
-        linkDto.setSourceAssetId(link.getSourceAsset().getId());
-        linkDto.setTargetAssetId(link.getTargetAsset().getId());
-        return linkDto;
+        AssetAttribute attribute = AssetMapper.mapToEntity(attributeDto);
+        attributeRepository.persist(attribute);
+
+        assetRepository.addAttributeToAsset(asset, attribute);
+        assetChanged.fire(new AssetChangedEvent(asset.getId(), AssetChangedEvent.Type.ATTRIBUTE_ADDED,
+                List.of(), List.of(), AssetFieldChanges.attributeAdded(attributeDto)));
+
+        return Response.status(Response.Status.CREATED).entity(AssetMapper.mapToDto(asset)).build();
     }
 
-    private List<AssetLinkDto> mapToDtoLinkList(List<AssetLink> links) {
-        return links.stream().map(this::mapToDto).collect(Collectors.toList());
+    @Transactional
+    @ReadOnly(replica = true)
+    public List<AssetAttributeDto> getAssetAttributes(@AssetId Long assetId) {
+        if (!assetQueryRepository.exists(assetId)) {
+            throw new NotFoundException("Asset not found");
+        }
+        // Projekcija namesto nalaganja kolekcije atributov kot entitet
+        return assetQueryRepository.findAttributes(assetId);
     }
 
-    private ConnectedAssetDto mapToConnectedAssetDto(Asset asset) {
-        ConnectedAssetDto connectedAssetDto = new ConnectedAssetDto();
-        connectedAssetDto.setId(asset.getId());
-        connectedAssetDto.setTitle(asset.getTitle());
-        return connectedAssetDto;
+    // Iskanje v širino do "depth" skokov; obiskani asseti preprečijo cikle, "limit" omeji število vozlišč
+    @Transactional
+    @ReadOnly(replica = true)
+    public List<ConnectedAssetDto> getConnectedAssets(@AssetId Long assetId, int depth, TraversalDirection direction, Integer limit) {
+        if (!assetQueryRepository.exists(assetId)) {
+            throw new NotFoundException("Asset not found");
+        }
+        int maxDepth = Math.max(1, Math.min(depth, maxTraversalDepth));
+        int maxNodes = limit == null || limit <= 0 ? maxTraversalNodes : Math.min(limit, maxTraversalNodes);
+
+        AssetGraphIndex.Traversal traversal = graphIndex.traverse(assetId, maxDepth, direction, maxNodes);
+        Map<Long, Integer> distances = traversal != null
+                ? traversal.toMap()
+                : traverseDatabase(assetId, maxDepth, direction, maxNodes);
+
+        List<ConnectedAssetDto> connectedAssets = assetQueryRepository.findConnectedAssets(new ArrayList<>(distances.keySet()));
+        for (ConnectedAssetDto connectedAsset : connectedAssets) {
+            connectedAsset.setDistance(distances.get(connectedAsset.getId()));
+        }
+        connectedAssets.sort(Comparator.comparingInt(ConnectedAssetDto::getDistance)
+                .thenComparing(ConnectedAssetDto::getId));
+        return connectedAssets;
     }
 
-    // Metode za preslikavo entitet v DTO-je
-    private Asset mapToEntity(AssetDto assetDto) {
-        Asset asset = new Asset();
-        asset.setTitle(assetDto.getTitle());
-        asset.setAttributes(mapToEntityAttributeList(assetDto.getAttributes()));
-        asset.setOutgoingLinks(mapToEntityLinkList(assetDto.getOutgoingLinks()));
-        asset.setIncomingLinks(mapToEntityLinkList(assetDto.getIncomingLinks()));
-        return asset;
+    // Iskanje po bazi, kadar indeks grafa ni na voljo: ena poizvedba na skok in smer
+    private Map<Long, Integer> traverseDatabase(Long assetId, int maxDepth, TraversalDirection direction, int maxNodes) {
+        Map<Long, Integer> distances = new LinkedHashMap<>();
+        Set<Long> visited = new HashSet<>();
+        visited.add(assetId);
+        List<Long> frontier = List.of(assetId);
+
+        for (int distance = 1; distance <= maxDepth && !frontier.isEmpty() && distances.size() < maxNodes; distance++) {
+            List<Long> neighbours = new ArrayList<>();
+            if (direction.followsOutgoing()) {
+                neighbours.addAll(assetQueryRepository.findTargetIds(frontier));
+            }
+            if (direction.followsIncoming()) {
+                neighbours.addAll(assetQueryRepository.findSourceIds(frontier));
+            }
+
+            List<Long> next = new ArrayList<>();
+            for (Long neighbour : neighbours) {
+                if (distances.size() == maxNodes) {
+                    break;
+                }
+                if (visited.add(neighbour)) {
+                    distances.put(neighbour, distance);
+                    next.add(neighbour);
+                }
+            }
+            frontier = next;
+        }
+        return distances;
     }
 
-    private List<AssetAttribute> mapToEntityAttributeList(List<AssetAttributeDto> attributeDtos) {
-        return attributeDtos.stream().map(this::mapToEntity).collect(Collectors.toList());
+    @Transactional
+    @ReadOnly(replica = true)
+    public Response exportAssetToExcel(@AssetId Long assetId) {
+        if (!assetQueryRepository.exists(assetId)) {
+            throw new NotFoundException("Asset not found");
+        }
+
+        List<AssetAttributeDto> assetDetails = assetQueryRepository.findAttributes(assetId);
+
+        StreamingOutput output = out -> writeAttributesWorkbook(assetDetails, out);
+
+        return Response.ok(output)
+                .header("Content-Disposition", "attachment; filename=\"asset-" + assetId + ".xlsx\"")
+                .build();
     }
 
-    private AssetAttribute mapToEntity(AssetAttributeDto attributeDto) {
-        AssetAttribute attribute = new AssetAttribute();
-        attribute.setName(attributeDto.getName());
-        attribute.setType(attributeDto.getType());
-        attribute.setRequired(attributeDto.isRequired());
-        attribute.setMinValue(attributeDto.getMinValue());
-        attribute.setMaxValue(attributeDto.getMaxValue());
-        return attribute;
+    // Za izvozna opravila na lastnem poolu: branje in pisanje v eni transakciji, brez konteksta zahteve
+    @Transactional
+    @ReadOnly
+    public void exportAssetToExcel(Long assetId, OutputStream output) throws IOException {
+        writeAttributesWorkbook(assetQueryRepository.findAttributes(assetId), output);
     }
 
-    private List<AssetLink> mapToEntityLinkList(List<AssetLinkDto> linkDtos) {
-        return linkDtos.stream().map(this::mapToEntity).collect(Collectors.toList());
+    private void writeAttributesWorkbook(List<AssetAttributeDto> attributes, OutputStream output) throws IOException {
+        try (AssetExcelWriter writer = AssetExcelWriter.forAttributes(exportRowWindow)) {
+            for (AssetAttributeDto attribute : attributes) {
+                writer.writeAttribute(attribute);
+            }
+            writer.write(output);
+        }
     }
 
-    private AssetLink mapToEntity(AssetLinkDto linkDto) {
-        AssetLink link = new AssetLink();
-        link.setId(linkDto.getId());
-        link.setSourceAsset(assetRepository.findById(linkDto.getSourceAssetId()));
-        link.setTargetAsset(assetRepository.findById(linkDto.getTargetAssetId()));
-        return link;
+    // Izvoz več assetov v en zvezek; brez id-jev izvozi vse assete
+    @Transactional
+    @ReadOnly(replica = true)
+    public void exportAssetsToExcel(@AssetId List<Long> assetIds, OutputStream output) throws IOException {
+        try (Stream<AssetDto> assets = assetIds.isEmpty()
+                ? assetQueryRepository.streamAll(streamFetchSize)
+                : assetQueryRepository.streamByIds(assetIds, streamFetchSize);
+             AssetExcelWriter writer = AssetExcelWriter.forAssets(exportRowWindow)) {
+
+            List<AssetDto> chunk = new ArrayList<>(streamFetchSize);
+            Iterator<AssetDto> iterator = assets.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == streamFetchSize || !iterator.hasNext()) {
+                    assetQueryRepository.fillAttributes(chunk);
+                    for (AssetDto assetDto : chunk) {
+                        writer.writeAsset(assetDto);
+                    }
+                    chunk.clear();
+                }
+            }
+
+            writer.write(output);
+        }
     }
 
 }
@@ -0,0 +1,443 @@
+package org.asset.service;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetLinkDto;
+import org.asset.dto.AssetPatchDto;
+import org.asset.dto.ConnectedAssetDto;
+import org.asset.dto.LinkBatchRequestDto;
+import org.asset.dto.LinkBatchResultDto;
+import org.asset.model.Asset;
+import org.asset.model.AssetAttribute;
+import org.asset.model.AssetLink;
+import org.asset.repository.ReactiveAssetRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Reaktivna različica AssetService: nobena metoda ne blokira niti, baza se kliče prek PgPool.
+ * Pisanje gre mimo Hibernate, zato po commitu sami sprožimo AssetChangedEvent in počistimo second-level cache.
+ */
+@ApplicationScoped
+public class ReactiveAssetService {
+
+    @Inject
+    PgPool client;
+
+    @Inject
+    ReactiveAssetRepository assetRepository;
+
+    @Inject
+    AssetGraphIndex graphIndex;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    Event<AssetChangedEvent> assetChanged;
+
+    @ConfigProperty(name = "asset.page.default-limit", defaultValue = "100")
+    int defaultPageLimit;
+
+    @ConfigProperty(name = "asset.page.max-limit", defaultValue = "1000")
+    int maxPageLimit;
+
+    @ConfigProperty(name = "asset.stream.fetch-size", defaultValue = "200")
+    int streamFetchSize;
+
+    @ConfigProperty(name = "asset.graph.max-depth", defaultValue = "10")
+    int maxTraversalDepth;
+
+    @ConfigProperty(name = "asset.graph.max-nodes", defaultValue = "10000")
+    int maxTraversalNodes;
+
+    public int resolvePageLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageLimit;
+        }
+        return Math.min(limit, maxPageLimit);
+    }
+
+    public Uni<List<AssetDto>> getAllAssets(Long after, int limit) {
+        return assetRepository.findPage(client, after, limit)
+                .flatMap(assets -> assetRepository.fillCollections(client, assets));
+    }
+
+    // Vse assete odda po straneh velikosti "asset.stream.fetch-size"; naslednja stran se prebere šele, ko je prejšnja porabljena
+    public Multi<AssetDto> streamAllAssets() {
+        AtomicReference<Long> cursor = new AtomicReference<>();
+        return Multi.createBy().repeating()
+                .uni(() -> getAllAssets(cursor.get(), streamFetchSize)
+                        .invoke(page -> {
+                            if (!page.isEmpty()) {
+                                cursor.set(page.get(page.size() - 1).getId());
+                            }
+                        }))
+                .whilst(page -> page.size() == streamFetchSize)
+                .onItem().transformToIterable(page -> page);
+    }
+
+    public Uni<AssetDto> getAssetById(Long id) {
+        return findAsset(client, id);
+    }
+
+    public Uni<AssetDto> createAsset(AssetDto assetDto) {
+        List<AssetLinkDto> createdLinks = new ArrayList<>();
+        return client.withTransaction(conn -> assetRepository.insertAsset(conn, assetDto.getTitle())
+                        .flatMap(id -> assetRepository.insertAttributes(conn, id, nullToEmpty(assetDto.getAttributes()))
+                                .flatMap(ignored -> {
+                                    // Novi asset je izvor izhodnih in cilj vhodnih povezav
+                                    List<AssetLinkDto> newLinks = new ArrayList<>();
+                                    for (AssetLinkDto linkDto : nullToEmpty(assetDto.getOutgoingLinks())) {
+                                        newLinks.add(new AssetLinkDto(null, id, linkDto.getTargetAssetId()));
+                                    }
+                                    for (AssetLinkDto linkDto : nullToEmpty(assetDto.getIncomingLinks())) {
+                                        newLinks.add(new AssetLinkDto(null, linkDto.getSourceAssetId(), id));
+                                    }
+                                    return createLinks(conn, id, newLinks);
+                                })
+                                .invoke(createdLinks::addAll)
+                                .flatMap(ignored -> incrementVersions(conn, null, createdLinks, List.of()))
+                                .flatMap(ignored -> findAsset(conn, id))))
+                .call(asset -> afterCommit(new AssetChangedEvent(asset.getId(), AssetChangedEvent.Type.CREATED,
+                        createdLinks, List.of(), AssetFieldChanges.created(assetDto.getTitle(), nullToEmpty(assetDto.getAttributes())))));
+    }
+
+    // Enaka pravila kot AssetService.updateAsset: povezave po AssetLinkDiff, atributi po vrednosti
+    public Uni<AssetDto> updateAsset(Long id, AssetDto updatedAsset) {
+        List<AssetLinkDto> addedLinks = new ArrayList<>();
+        List<AssetLinkDto> removedLinks = new ArrayList<>();
+        AssetFieldChanges fieldChanges = new AssetFieldChanges();
+        return client.withTransaction(conn -> lockAsset(conn, id)
+                        .flatMap(ignored -> assetRepository.updateTitle(conn, id, updatedAsset.getTitle()))
+                        .invoke(oldTitle -> fieldChanges.title(oldTitle, updatedAsset.getTitle()))
+                        .flatMap(ignored -> assetRepository.findLinkEntities(conn, id, true))
+                        .flatMap(outgoing -> assetRepository.findLinkEntities(conn, id, false)
+                                .flatMap(incoming -> {
+                                    AssetLinkDiff outgoingDiff = AssetLinkDiff.compute(id, true, outgoing,
+                                            nullToEmpty(updatedAsset.getOutgoingLinks()));
+                                    AssetLinkDiff incomingDiff = AssetLinkDiff.compute(id, false, incoming,
+                                            nullToEmpty(updatedAsset.getIncomingLinks()));
+                                    removedLinks.addAll(AssetChangedEvent.links(outgoingDiff.getRemoved()));
+                                    removedLinks.addAll(AssetChangedEvent.links(incomingDiff.getRemoved()));
+                                    List<AssetLinkDto> newLinks = new ArrayList<>(outgoingDiff.getAdded());
+                                    newLinks.addAll(incomingDiff.getAdded());
+                                    return assetRepository.deleteLinks(conn, linkIds(removedLinks))
+                                            .flatMap(deleted -> createLinks(conn, id, newLinks));
+                                }))
+                        .invoke(addedLinks::addAll)
+                        .flatMap(ignored -> assetRepository.findAttributeEntities(conn, id))
+                        .flatMap(existing -> replaceAttributes(conn, id, existing, nullToEmpty(updatedAsset.getAttributes()),
+                                fieldChanges))
+                        .flatMap(ignored -> incrementVersions(conn, id, addedLinks, removedLinks))
+                        .flatMap(ignored -> findAsset(conn, id)))
+                .call(asset -> afterCommit(new AssetChangedEvent(id, AssetChangedEvent.Type.UPDATED,
+                        addedLinks, removedLinks, fieldChanges)));
+    }
+
+    public Uni<AssetDto> patchAsset(Long id, AssetPatchDto patch) {
+        List<AssetLinkDto> newLinks = new ArrayList<>();
+        for (AssetLinkDto linkDto : nullToEmpty(patch.getAddLinks())) {
+            Long source = linkDto.getSourceAssetId() == null ? id : linkDto.getSourceAssetId();
+            Long target = linkDto.getTargetAssetId() == null ? id : linkDto.getTargetAssetId();
+            if (!id.equals(source) && !id.equals(target)) {
+                return Uni.createFrom().failure(new BadRequestException("Link must start or end at asset " + id));
+            }
+            newLinks.add(new AssetLinkDto(null, source, target));
+        }
+
+        List<AssetLinkDto> addedLinks = new ArrayList<>();
+        List<AssetLinkDto> removedLinks = new ArrayList<>();
+        AssetFieldChanges fieldChanges = new AssetFieldChanges();
+        fieldChanges.getAddedAttributes().addAll(nullToEmpty(patch.getAddAttributes()));
+        return client.withTransaction(conn -> lockAsset(conn, id)
+                        .flatMap(ignored -> patch.getTitle() == null
+                                ? Uni.createFrom().voidItem()
+                                : assetRepository.updateTitle(conn, id, patch.getTitle())
+                                        .invoke(oldTitle -> fieldChanges.title(oldTitle, patch.getTitle()))
+                                        .replaceWithVoid())
+                        .flatMap(ignored -> assetRepository.removeAttributesByName(conn, id, nullToEmpty(patch.getRemoveAttributes())))
+                        .invoke(fieldChanges.getRemovedAttributes()::addAll)
+                        .flatMap(ignored -> assetRepository.insertAttributes(conn, id, nullToEmpty(patch.getAddAttributes())))
+                        .flatMap(ignored -> assetRepository.findLinks(conn, nullToEmpty(patch.getRemoveLinkIds())))
+                        .flatMap(links -> {
+                            // Brišejo se le povezave, ki se dotikajo tega asseta
+                            for (AssetLinkDto link : links) {
+                                if (id.equals(link.getSourceAssetId()) || id.equals(link.getTargetAssetId())) {
+                                    removedLinks.add(link);
+                                }
+                            }
+                            return assetRepository.deleteLinks(conn, linkIds(removedLinks));
+                        })
+                        .flatMap(ignored -> createLinks(conn, id, newLinks))
+                        .invoke(addedLinks::addAll)
+                        .flatMap(ignored -> incrementVersions(conn, id, addedLinks, removedLinks))
+                        .flatMap(ignored -> findAsset(conn, id)))
+                .call(asset -> afterCommit(new AssetChangedEvent(id, AssetChangedEvent.Type.UPDATED,
+                        addedLinks, removedLinks, fieldChanges)));
+    }
+
+    public Uni<AssetDto> addAssetAttribute(Long assetId, AssetAttributeDto attributeDto) {
+        return client.withTransaction(conn -> lockAsset(conn, assetId)
+                        .flatMap(ignored -> assetRepository.insertAttributes(conn, assetId, List.of(attributeDto)))
+                        .flatMap(ignored -> incrementVersions(conn, assetId, List.of(), List.of()))
+                        .flatMap(ignored -> findAsset(conn, assetId)))
+                .call(asset -> afterCommit(new AssetChangedEvent(assetId, AssetChangedEvent.Type.ATTRIBUTE_ADDED,
+                        List.of(), List.of(), AssetFieldChanges.attributeAdded(attributeDto))));
+    }
+
+    public Uni<List<AssetAttributeDto>> getAssetAttributes(Long assetId) {
+        return assetRepository.findById(client, assetId)
+                .onItem().ifNull().failWith(() -> new NotFoundException("Asset not found"))
+                .flatMap(asset -> assetRepository.findAttributes(client, assetId));
+    }
+
+    // Najprej indeks grafa v pomnilniku, sicer ena rekurzivna poizvedba namesto poizvedbe na skok
+    public Uni<List<ConnectedAssetDto>> getConnectedAssets(Long assetId, int depth, TraversalDirection direction, Integer limit) {
+        int maxDepth = Math.max(1, Math.min(depth, maxTraversalDepth));
+        int maxNodes = limit == null || limit <= 0 ? maxTraversalNodes : Math.min(limit, maxTraversalNodes);
+
+        return assetRepository.findById(client, assetId)
+                .onItem().ifNull().failWith(() -> new NotFoundException("Asset not found"))
+                .flatMap(asset -> {
+                    AssetGraphIndex.Traversal traversal = graphIndex.traverse(assetId, maxDepth, direction, maxNodes);
+                    return traversal != null
+                            ? Uni.createFrom().item(traversal.toMap())
+                            : assetRepository.traverse(client, assetId, maxDepth, direction, maxNodes);
+                })
+                .flatMap(distances -> assetRepository.findConnectedAssets(client, new ArrayList<>(distances.keySet()))
+                        .map(connectedAssets -> {
+                            for (ConnectedAssetDto connectedAsset : connectedAssets) {
+                                connectedAsset.setDistance(distances.get(connectedAsset.getId()));
+                            }
+                            connectedAssets.sort(Comparator.comparingInt(ConnectedAssetDto::getDistance)
+                                    .thenComparing(ConnectedAssetDto::getId));
+                            return connectedAssets;
+                        }));
+    }
+
+    // Paketno ustvarjanje in brisanje povezav; manjkajoči id-ji se sporočijo, ne prekinejo paketa
+    public Uni<LinkBatchResultDto> batchLinks(LinkBatchRequestDto request) {
+        LinkBatchResultDto result = new LinkBatchResultDto();
+        List<Long> removeIds = new ArrayList<>(new LinkedHashSet<>(nullToEmpty(request.getRemove())));
+        List<AssetLinkDto> createDtos = nullToEmpty(request.getCreate());
+        List<AssetLinkDto> removedLinks = new ArrayList<>();
+
+        Set<Long> referencedIds = new HashSet<>();
+        for (AssetLinkDto linkDto : createDtos) {
+            if (linkDto.getSourceAssetId() != null) {
+                referencedIds.add(linkDto.getSourceAssetId());
+            }
+            if (linkDto.getTargetAssetId() != null) {
+                referencedIds.add(linkDto.getTargetAssetId());
+            }
+        }
+
+        return client.withTransaction(conn -> assetRepository.findLinks(conn, removeIds)
+                        .flatMap(links -> {
+                            removedLinks.addAll(links);
+                            Set<Long> foundIds = new HashSet<>(linkIds(links));
+                            for (Long linkId : removeIds) {
+                                if (!foundIds.contains(linkId)) {
+                                    result.getMissingLinkIds().add(linkId);
+                                }
+                            }
+                            result.getRemoved().addAll(linkIds(links));
+                            return assetRepository.deleteLinks(conn, linkIds(links));
+                        })
+                        .flatMap(ignored -> assetRepository.findExistingIds(conn, referencedIds))
+                        .flatMap(existingIds -> {
+                            Set<Long> missingAssetIds = new LinkedHashSet<>();
+                            List<AssetLinkDto> valid = new ArrayList<>(createDtos.size());
+                            for (AssetLinkDto linkDto : createDtos) {
+                                boolean sourceFound = existingIds.contains(linkDto.getSourceAssetId());
+                                boolean targetFound = existingIds.contains(linkDto.getTargetAssetId());
+                                if (sourceFound && targetFound) {
+                                    valid.add(new AssetLinkDto(null, linkDto.getSourceAssetId(), linkDto.getTargetAssetId()));
+                                    continue;
+                                }
+                                if (!sourceFound && linkDto.getSourceAssetId() != null) {
+                                    missingAssetIds.add(linkDto.getSourceAssetId());
+                                }
+                                if (!targetFound && linkDto.getTargetAssetId() != null) {
+                                    missingAssetIds.add(linkDto.getTargetAssetId());
+                                }
+                            }
+                            result.getMissingAssetIds().addAll(missingAssetIds);
+                            return assetRepository.insertLinks(conn, valid);
+                        })
+                        .flatMap(created -> incrementVersions(conn, null, created, removedLinks).replaceWith(created))
+                        .map(created -> {
+                            result.setCreated(created);
+                            return result;
+                        }))
+                .call(ignored -> afterCommit(new AssetChangedEvent(null, AssetChangedEvent.Type.LINKS_CHANGED,
+                        result.getCreated(), removedLinks)));
+    }
+
+    private Uni<AssetDto> findAsset(SqlClient client, Long id) {
+        return assetRepository.findById(client, id)
+                .onItem().ifNull().failWith(() -> new NotFoundException("Asset not found"))
+                .flatMap(asset -> assetRepository.fillCollections(client, List.of(asset)))
+                .map(assets -> assets.get(0));
+    }
+
+    private Uni<Boolean> lockAsset(SqlClient conn, Long id) {
+        return assetRepository.lockById(conn, id)
+                .invoke(found -> {
+                    if (!found) {
+                        throw new NotFoundException("Asset not found");
+                    }
+                });
+    }
+
+    // Druge konce povezav preveri z eno poizvedbo; manjkajoč konec je napaka odjemalca
+    private Uni<List<AssetLinkDto>> createLinks(SqlClient conn, Long assetId, List<AssetLinkDto> linkDtos) {
+        if (linkDtos.isEmpty()) {
+            return Uni.createFrom().item(new ArrayList<>());
+        }
+        Set<Long> referencedIds = new HashSet<>();
+        for (AssetLinkDto linkDto : linkDtos) {
+            if (linkDto.getSourceAssetId() == null || linkDto.getTargetAssetId() == null) {
+                return Uni.createFrom().failure(new BadRequestException("Link is missing its source or target asset"));
+            }
+            referencedIds.add(linkDto.getSourceAssetId());
+            referencedIds.add(linkDto.getTargetAssetId());
+        }
+        referencedIds.remove(assetId);
+
+        return assetRepository.findExistingIds(conn, referencedIds)
+                .flatMap(existingIds -> {
+                    referencedIds.removeAll(existingIds);
+                    if (!referencedIds.isEmpty()) {
+                        return Uni.createFrom().failure(new BadRequestException("Linked assets not found: " + referencedIds));
+                    }
+                    return assetRepository.insertLinks(conn, linkDtos);
+                });
+    }
+
+    // Obstoječi atributi, ki se ujemajo po vrednosti, ostanejo; ostali se odstranijo, manjkajoči dodajo
+    private Uni<Void> replaceAttributes(SqlClient conn, Long assetId, List<AssetAttribute> existing, List<AssetAttributeDto> desired,
+                                        AssetFieldChanges fieldChanges) {
+        Map<List<Object>, Deque<AssetAttribute>> existingByValue = new HashMap<>();
+        for (AssetAttribute attribute : existing) {
+            existingByValue.computeIfAbsent(attributeKey(AssetMapper.mapToDto(attribute)), key -> new ArrayDeque<>()).add(attribute);
+        }
+        List<AssetAttributeDto> added = new ArrayList<>();
+        for (AssetAttributeDto attributeDto : desired) {
+            Deque<AssetAttribute> matches = existingByValue.get(attributeKey(attributeDto));
+            if (matches != null && !matches.isEmpty()) {
+                matches.poll();
+            } else {
+                added.add(attributeDto);
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        for (Deque<AssetAttribute> unmatched : existingByValue.values()) {
+            for (AssetAttribute attribute : unmatched) {
+                removed.add(attribute.getId());
+                fieldChanges.getRemovedAttributes().add(AssetMapper.mapToDto(attribute));
+            }
+        }
+        fieldChanges.getAddedAttributes().addAll(added);
+        return assetRepository.removeAttributes(conn, assetId, removed)
+                .flatMap(ignored -> assetRepository.insertAttributes(conn, assetId, added));
+    }
+
+    /*
+     * Po uspešnem commitu: dogodek za indeks grafa in izpraznitev second-level cache-a za prizadete assete,
+     * ker Hibernate za te spremembe ne ve. Query cache se izprazni v celoti.
+     * Opazovalci dogodka zaklepajo in delajo z bazo, zato to teče na delovni niti in ne na event loopu.
+     * Odgovor počaka na izpraznitev cache-a, da naslednje branje istega odjemalca ne dobi starih podatkov.
+     */
+    private Uni<Void> afterCommit(AssetChangedEvent event) {
+        return Uni.createFrom().voidItem()
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .invoke(() -> evictAndFire(event));
+    }
+
+    private void evictAndFire(AssetChangedEvent event) {
+        Set<Long> assetIds = new HashSet<>();
+        if (event.getAssetId() != null) {
+            assetIds.add(event.getAssetId());
+        }
+        addEndpoints(assetIds, event.getAddedLinks());
+        addEndpoints(assetIds, event.getRemovedLinks());
+
+        Cache cache = sessionFactory.getCache();
+        for (Long assetId : assetIds) {
+            cache.evictEntityData(Asset.class, assetId);
+            cache.evictCollectionData("org.asset.model.Asset.attributes", assetId);
+            cache.evictCollectionData("org.asset.model.Asset.outgoingLinks", assetId);
+            cache.evictCollectionData("org.asset.model.Asset.incomingLinks", assetId);
+        }
+        for (AssetLinkDto link : event.getRemovedLinks()) {
+            cache.evictEntityData(AssetLink.class, link.getId());
+        }
+        cache.evictDefaultQueryRegion();
+
+        assetChanged.fire(event);
+    }
+
+    // Urejani asset in oba konca vseh dodanih ali odstranjenih povezav
+    private Uni<Integer> incrementVersions(SqlClient conn, Long assetId, List<AssetLinkDto> addedLinks,
+                                           List<AssetLinkDto> removedLinks) {
+        Set<Long> assetIds = new HashSet<>();
+        if (assetId != null) {
+            assetIds.add(assetId);
+        }
+        addEndpoints(assetIds, addedLinks);
+        addEndpoints(assetIds, removedLinks);
+        return assetRepository.incrementVersions(conn, assetIds);
+    }
+
+    private static void addEndpoints(Set<Long> assetIds, Collection<AssetLinkDto> links) {
+        for (AssetLinkDto link : links) {
+            assetIds.add(link.getSourceAssetId());
+            assetIds.add(link.getTargetAssetId());
+        }
+    }
+
+    private static List<Long> linkIds(List<AssetLinkDto> links) {
+        List<Long> ids = new ArrayList<>(links.size());
+        for (AssetLinkDto link : links) {
+            ids.add(link.getId());
+        }
+        return ids;
+    }
+
+    private static List<Object> attributeKey(AssetAttributeDto attribute) {
+        return Arrays.asList(attribute.getName(), attribute.getType(), attribute.isRequired(),
+                attribute.getMinValue(), attribute.getMaxValue());
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+}
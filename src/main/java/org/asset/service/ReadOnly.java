@@ -0,0 +1,21 @@
+package org.asset.service;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Bralna metoda: entitete se naložijo kot read-only (brez posnetkov za dirty checking), flush se ne izvede
+@InterceptorBinding
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+
+    // Metoda sme brati z bralne replike (glej ReadRouting); AssetQueryRepository takrat uporabi enoto "read"
+    @Nonbinding
+    boolean replica() default false;
+
+}
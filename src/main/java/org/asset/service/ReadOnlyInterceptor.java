@@ -0,0 +1,53 @@
+package org.asset.service;
+
+import io.quarkus.hibernate.orm.PersistenceUnit;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+/*
+ * Teče znotraj @Transactional (višja prioriteta od TransactionalInterceptor), torej na seji transakcije.
+ * Read-only seja ne hrani posnetkov stanja naloženih entitet, FlushMode.MANUAL pa izpusti flush ob commitu,
+ * zato bralne metode ne plačajo dirty checkinga. Prejšnje stanje se povrne, ker je seja lahko skupna s klicateljem.
+ * Pri @ReadOnly(replica = true) ReadRouting izbere bazo; nastavitve veljajo za sejo izbrane enote.
+ */
+@ReadOnly
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 300)
+public class ReadOnlyInterceptor {
+
+    @Inject
+    Session session;
+
+    @Inject
+    @PersistenceUnit("read")
+    Session readSession;
+
+    @Inject
+    ReadRouting readRouting;
+
+    @AroundInvoke
+    Object readOnly(InvocationContext context) throws Exception {
+        ReadOnly readOnly = context.getMethod().getAnnotation(ReadOnly.class);
+        boolean replica = readOnly != null && readOnly.replica() && readRouting.replicaFor(context.getMethod(), context.getParameters());
+        boolean previousRoute = readRouting.route(replica);
+        Session current = replica ? readSession : session;
+
+        boolean defaultReadOnly = current.isDefaultReadOnly();
+        FlushMode flushMode = current.getHibernateFlushMode();
+        current.setDefaultReadOnly(true);
+        current.setHibernateFlushMode(FlushMode.MANUAL);
+        try {
+            return context.proceed();
+        } finally {
+            current.setHibernateFlushMode(flushMode);
+            current.setDefaultReadOnly(defaultReadOnly);
+            readRouting.route(previousRoute);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.asset.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.asset.dto.AssetLinkDto;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Odloča, ali bralna metoda (@ReadOnly(replica = true)) bere z replike ali s primarne baze.
+ * Asset, ki se je na tej instanci spremenil v zadnjih primary-after-write, se bere s primarne baze,
+ * da odjemalec po PUT/PATCH prebere svojo spremembo (read-your-writes), tudi če replika zaostaja.
+ * Assete prepozna po parametrih z @AssetId; metode brez takega parametra (seznam, iskanje, izvoz vseh) vedno berejo
+ * z replike. Spremembe so znane le instanci, ki jih je izvedla: z več instancami za load balancerjem
+ * read-your-writes velja samo, če zahteve istega odjemalca pristanejo na isti instanci.
+ */
+@ApplicationScoped
+public class ReadRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA = ThreadLocal.withInitial(() -> false);
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    @ConfigProperty(name = "asset.read-replica.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "asset.read-replica.primary-after-write", defaultValue = "5s")
+    Duration primaryAfterWrite;
+
+    // Id asseta -> System.nanoTime(), do katerega se bere s primarne baze
+    private final Map<Long, Long> recentWrites = new ConcurrentHashMap<>();
+
+    // Indeksi parametrov z @AssetId po metodi; getParameterAnnotations ob vsakem klicu kopira polja
+    private final Map<Method, int[]> assetIdParameters = new ConcurrentHashMap<>();
+
+    // Ob nedavni spremembi kateregakoli asseta iz parametrov z @AssetId ostane primarna baza
+    boolean replicaFor(Method method, Object[] parameters) {
+        if (!enabled) {
+            return false;
+        }
+        for (int index : assetIdParameters.computeIfAbsent(method, ReadRouting::assetIdParameters)) {
+            Object parameter = parameters[index];
+            if (parameter instanceof Long assetId && recentlyWritten(assetId)) {
+                return false;
+            }
+            if (parameter instanceof Collection<?> ids) {
+                for (Object id : ids) {
+                    if (id instanceof Long assetId && recentlyWritten(assetId)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[] assetIdParameters(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        int[] indexes = new int[annotations.length];
+        int count = 0;
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof AssetId) {
+                    indexes[count++] = i;
+                }
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    public boolean useReplica() {
+        return REPLICA.get();
+    }
+
+    boolean route(boolean replica) {
+        boolean previous = REPLICA.get();
+        REPLICA.set(replica);
+        return previous;
+    }
+
+    void onAssetChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) AssetChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long until = System.nanoTime() + primaryAfterWrite.toNanos();
+        if (event.getAssetId() != null) {
+            recentWrites.put(event.getAssetId(), until);
+        }
+        for (List<AssetLinkDto> links : List.of(event.getAddedLinks(), event.getRemovedLinks())) {
+            for (AssetLinkDto link : links) {
+                recentWrites.put(link.getSourceAssetId(), until);
+                recentWrites.put(link.getTargetAssetId(), until);
+            }
+        }
+        if (recentWrites.size() > PURGE_THRESHOLD) {
+            long now = System.nanoTime();
+            recentWrites.values().removeIf(expiry -> expiry - now < 0);
+        }
+    }
+
+    private boolean recentlyWritten(Long assetId) {
+        Long until = recentWrites.get(assetId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+}
@@ -0,0 +1,23 @@
+package org.asset.service;
+
+// Smer sledenja povezavam pri iskanju povezanih assetov
+public enum TraversalDirection {
+
+    OUT, IN, BOTH;
+
+    public static TraversalDirection fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return BOTH;
+        }
+        return valueOf(value.trim().toUpperCase());
+    }
+
+    public boolean followsOutgoing() {
+        return this != IN;
+    }
+
+    public boolean followsIncoming() {
+        return this != OUT;
+    }
+
+}
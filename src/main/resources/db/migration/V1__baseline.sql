@@ -0,0 +1,43 @@
+-- Shema, kot jo je do zdaj ustvaril hibernate-orm.database.generation=update (id-ji IDENTITY, na PostgreSQL bigserial).
+-- Obstoječe baze se označijo kot baseline (verzija 1) in ta skripta na njih ne teče, zato mora biti enaka njihovi shemi:
+-- vse, kar se spremeni, gre v V2 in naprej, ki tečejo na novih in na obstoječih bazah.
+
+create table asset (
+    id bigserial not null,
+    title varchar(255),
+    primary key (id)
+);
+
+create table assetattribute (
+    id bigserial not null,
+    maxvalue varchar(255),
+    minvalue varchar(255),
+    name varchar(255),
+    required boolean not null,
+    type varchar(255),
+    primary key (id)
+);
+
+create table asset_assetattribute (
+    asset_id bigint not null,
+    attributes_id bigint not null,
+    constraint fk_asset_assetattribute_asset foreign key (asset_id) references asset,
+    constraint fk_asset_assetattribute_attribute foreign key (attributes_id) references assetattribute
+);
+
+create table assetlink (
+    id bigserial not null,
+    sourceasset_id bigint,
+    targetasset_id bigint,
+    primary key (id),
+    constraint fk_assetlink_source foreign key (sourceasset_id) references asset,
+    constraint fk_assetlink_target foreign key (targetasset_id) references asset
+);
+
+create table users (
+    id bigserial not null,
+    email varchar(255),
+    isadmin boolean not null,
+    password varchar(255),
+    primary key (id)
+);
@@ -0,0 +1,40 @@
+-- Id-ji z IDENTITY (bigserial) na sekvence z alokacijo 50, da Hibernate lahko batcha inserte.
+-- Teče tudi na baseline bazah, zato vse z IF [NOT] EXISTS: sekvence je morda že ustvaril schema update
+-- prejšnje različice, stolpec pa je lahko serial (privzeta vrednost nextval) ali identity.
+
+create sequence if not exists asset_seq start with 1 increment by 50;
+create sequence if not exists asset_attribute_seq start with 1 increment by 50;
+create sequence if not exists asset_link_seq start with 1 increment by 50;
+create sequence if not exists users_seq start with 1 increment by 50;
+
+alter sequence asset_seq increment by 50;
+alter sequence asset_attribute_seq increment by 50;
+alter sequence asset_link_seq increment by 50;
+alter sequence users_seq increment by 50;
+
+-- Id dodeli Hibernate iz sekvence; stara privzeta vrednost bi ob ročnem insertu podelila že zasedene id-je
+alter table asset alter column id drop identity if exists;
+alter table assetattribute alter column id drop identity if exists;
+alter table assetlink alter column id drop identity if exists;
+alter table users alter column id drop identity if exists;
+
+alter table asset alter column id drop default;
+alter table assetattribute alter column id drop default;
+alter table assetlink alter column id drop default;
+alter table users alter column id drop default;
+
+drop sequence if exists asset_id_seq;
+drop sequence if exists assetattribute_id_seq;
+drop sequence if exists assetlink_id_seq;
+drop sequence if exists users_id_seq;
+
+-- Sekvence postavi nad obstoječe id-je; pooled optimizer porabi vrednosti do (nextval - 49)
+select setval('asset_seq', coalesce((select max(id) from asset), 0) + 50);
+select setval('asset_attribute_seq', coalesce((select max(id) from assetattribute), 0) + 50);
+select setval('asset_link_seq', coalesce((select max(id) from assetlink), 0) + 50);
+select setval('users_seq', coalesce((select max(id) from users), 0) + 50);
+
+-- En uporabnik na e-poštni naslov; migracija pade, če so v bazi že podvojeni naslovi.
+-- Omejitev z istim imenom je morda že ustvaril schema update (@UniqueConstraint na Users).
+alter table users drop constraint if exists uk_users_email;
+alter table users add constraint uk_users_email unique (email);
@@ -0,0 +1,10 @@
+-- Indeksi za tuje ključe in stično tabelo: brez njih je vsak getConnectedAssets in nalaganje kolekcij sekvenčni pregled.
+-- CONCURRENTLY, da gradnja na veliki produkcijski tabeli ne zaklene pisanja; Flyway zato skripto izvede izven transakcije.
+-- IF NOT EXISTS, ker je nekatere že ustvaril schema update (@Index na entiteti) prejšnje različice.
+-- Če gradnja pade, ostane neveljaven indeks, ki ga IF NOT EXISTS preskoči: pred ponovnim zagonom ga je treba odstraniti.
+
+create index concurrently if not exists idx_assetlink_source on assetlink (sourceasset_id);
+create index concurrently if not exists idx_assetlink_target on assetlink (targetasset_id);
+create index concurrently if not exists idx_asset_assetattribute_asset on asset_assetattribute (asset_id);
+create index concurrently if not exists idx_asset_assetattribute_attribute on asset_assetattribute (attributes_id);
+create index concurrently if not exists idx_asset_attribute_name_type on assetattribute (name, type);
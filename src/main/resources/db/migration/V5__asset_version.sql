@@ -0,0 +1,2 @@
+-- Verzija asseta za optimistično zaklepanje in ETag; obstoječi asseti začnejo z 0
+alter table asset add column version bigint not null default 0;
@@ -0,0 +1,12 @@
+-- Zgodovina sprememb assetov: samo dodajanje, piše jo AssetHistoryWriter z večvrstičnimi inserti
+create table assethistory (
+    id bigint generated by default as identity,
+    assetid bigint not null,
+    changetype varchar(32) not null,
+    details text,
+    changedat timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+-- Keyset paginacija GET /assets/{id}/history
+create index idx_assethistory_asset on assethistory (assetid, id);
@@ -0,0 +1,41 @@
+package org.asset;
+
+import org.asset.dto.AssetAttributeDto;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetLinkDto;
+import org.asset.service.AssetService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Testni asseti: veriga, v kateri ima vsak asset dva atributa in povezavo na prejšnjega
+public final class AssetFixtures {
+
+    private AssetFixtures() {
+    }
+
+    public static List<Long> createChain(AssetService assetService, String title, int size) {
+        List<Long> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            AssetDto assetDto = new AssetDto();
+            assetDto.setTitle(title + " " + i);
+            assetDto.setAttributes(List.of(attribute("serial", "STRING"), attribute("weight", "NUMBER")));
+            List<AssetLinkDto> links = new ArrayList<>();
+            if (!ids.isEmpty()) {
+                links.add(new AssetLinkDto(null, null, ids.get(ids.size() - 1)));
+            }
+            assetDto.setOutgoingLinks(links);
+            AssetDto created = (AssetDto) assetService.createAsset(assetDto).getEntity();
+            ids.add(created.getId());
+        }
+        return ids;
+    }
+
+    private static AssetAttributeDto attribute(String name, String type) {
+        AssetAttributeDto attribute = new AssetAttributeDto();
+        attribute.setName(name);
+        attribute.setType(type);
+        return attribute;
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.asset;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * @QuarkusTest razredi, ki potrebujejo PostgreSQL: tečejo, če je na voljo Docker za Dev Services
+ * ali je baza podana z -Dquarkus.datasource.jdbc.url; sicer se preskočijo, namesto da bi zagon padel.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(DatabaseAvailable.Condition.class)
+public @interface DatabaseAvailable {
+
+    class Condition implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            if (System.getProperty("quarkus.datasource.jdbc.url") != null) {
+                return ConditionEvaluationResult.enabled("Database given with -Dquarkus.datasource.jdbc.url");
+            }
+            if (System.getenv("DOCKER_HOST") != null || Files.exists(Path.of("/var/run/docker.sock"))) {
+                return ConditionEvaluationResult.enabled("Docker is available for Dev Services");
+            }
+            return ConditionEvaluationResult.disabled("No database: start Docker or pass -Dquarkus.datasource.jdbc.url");
+        }
+
+    }
+
+}
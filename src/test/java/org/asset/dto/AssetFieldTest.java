@@ -0,0 +1,62 @@
+package org.asset.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AssetFieldTest {
+
+    @Test
+    void missingParameterSelectsAllCollections() {
+        assertEquals(EnumSet.allOf(AssetField.class), AssetField.parse(null));
+        assertEquals(EnumSet.allOf(AssetField.class), AssetField.parse(" "));
+    }
+
+    @Test
+    void idAndTitleSelectNoCollections() {
+        assertTrue(AssetField.parse("id,title").isEmpty());
+    }
+
+    @Test
+    void namesAreTrimmedAndEmptyEntriesSkipped() {
+        assertEquals(EnumSet.of(AssetField.ATTRIBUTES, AssetField.INCOMING_LINKS),
+                AssetField.parse(" attributes ,, incomingLinks,"));
+    }
+
+    @Test
+    void unknownNameIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> AssetField.parse("title,owner"));
+        assertEquals("owner", e.getMessage());
+    }
+
+    @Test
+    void namesAreCaseSensitive() {
+        assertThrows(IllegalArgumentException.class, () -> AssetField.parse("Attributes"));
+    }
+
+    @Test
+    void maskDiffersPerProjection() {
+        Set<AssetField> all = EnumSet.allOf(AssetField.class);
+
+        assertEquals(0, AssetField.mask(EnumSet.noneOf(AssetField.class)));
+        assertEquals(7, AssetField.mask(all));
+        assertNotEquals(AssetField.mask(EnumSet.of(AssetField.OUTGOING_LINKS)),
+                AssetField.mask(EnumSet.of(AssetField.INCOMING_LINKS)));
+    }
+
+    @Test
+    void linksAreIncludedWithEitherDirection() {
+        assertTrue(AssetField.includesLinks(EnumSet.of(AssetField.INCOMING_LINKS)));
+        assertTrue(AssetField.includesLinks(EnumSet.of(AssetField.OUTGOING_LINKS)));
+        assertFalse(AssetField.includesLinks(EnumSet.of(AssetField.ATTRIBUTES)));
+    }
+
+}
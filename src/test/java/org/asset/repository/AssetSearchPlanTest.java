@@ -0,0 +1,132 @@
+package org.asset.repository;
+
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.asset.DatabaseAvailable;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetSearchCriteria;
+import org.asset.metrics.RequestSqlStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Plani poizvedb za GET /assets/search. Test pokliče AssetQueryRepository.search in iz števcev PostgreSQL za
+ * trenutno transakcijo (pg_stat_get_xact_numscans) prebere, katere indekse in tabele je izvedena poizvedba
+ * pregledala; tako se preveri SQL, ki ga Hibernate res ustvari, z resničnimi parametri. Ujeti SQL
+ * (SqlStatementCounter) je v sporočilu napake.
+ * Test preveri, da indeks pogoju ustreza, ne da ga planer izbere pri dani velikosti tabele: sekvenčni pregled in
+ * pregled po primarnem ključu sta izklopljena, zato poizvedba brez pregleda indeksa pomeni, da ga pogoj ne more
+ * uporabiti (npr. ILIKE ali title brez lower). Podatki se vstavijo v transakciji testa in se na koncu zavržejo.
+ */
+@QuarkusTest
+@DatabaseAvailable
+@TestTransaction
+public class AssetSearchPlanTest {
+
+    private static final int FILLER = 100;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    AssetQueryRepository assetQueryRepository;
+
+    @Inject
+    RequestSqlStats requestSqlStats;
+
+    // Kliče ga vsak test sam: @BeforeEach teče v svoji transakciji, SET LOCAL pa velja samo v transakciji testa
+    private void seed() {
+        execute("insert into asset (id, title) select nextval('asset_seq'), 'plan filler ' || g " +
+                "from generate_series(1, " + FILLER + ") g");
+        execute("insert into asset (id, title) values (nextval('asset_seq'), 'Plan Needle')");
+        execute("insert into assetattribute (id, name, type, required) " +
+                "select nextval('asset_attribute_seq'), 'filler ' || g, 'STRING', false from generate_series(1, " + FILLER + ") g");
+        execute("insert into asset_assetattribute (asset_id, attributes_id) select a.id, attr.id from asset a " +
+                "join assetattribute attr on attr.name = 'filler ' || substring(a.title from 13) where a.title like 'plan filler %'");
+        execute("analyze asset");
+        execute("analyze assetattribute");
+        execute("analyze asset_assetattribute");
+        execute("set local enable_seqscan = off");
+        execute("set local enable_indexscan = off");
+        // Plan z dejanskimi vrednostmi parametrov, tudi ko gonilnik stavek po nekaj izvedbah pripravi na strežniku
+        execute("set local plan_cache_mode = force_custom_plan");
+    }
+
+    @Test
+    void titleSearchUsesTrigramIndex() {
+        seed();
+        AssetSearchCriteria criteria = new AssetSearchCriteria();
+        criteria.setTitle("NEEDLE");
+
+        Scans scans = search(criteria, "idx_asset_title_trgm", "asset");
+
+        assertTrue(scans.index > 0, scans.message());
+        assertEquals(0, scans.table, scans.message());
+    }
+
+    @Test
+    void titlePrefixSearchUsesTrigramIndex() {
+        seed();
+        AssetSearchCriteria criteria = new AssetSearchCriteria();
+        criteria.setTitlePrefix("plan need");
+
+        Scans scans = search(criteria, "idx_asset_title_trgm", "asset");
+
+        assertTrue(scans.index > 0, scans.message());
+        assertEquals(0, scans.table, scans.message());
+    }
+
+    @Test
+    void attributeFilterUsesNameTypeIndex() {
+        seed();
+        AssetSearchCriteria criteria = new AssetSearchCriteria();
+        criteria.setAttributeName("filler 42");
+        criteria.setAttributeType("STRING");
+
+        Scans scans = search(criteria, "idx_asset_attribute_name_type", "assetattribute");
+
+        assertTrue(scans.index > 0, scans.message());
+        assertEquals(0, scans.table, scans.message());
+    }
+
+    // Pregledi indeksa in sekvenčni pregledi tabele, ki jih je naredilo samo iskanje, brez polnjenja kolekcij
+    private Scans search(AssetSearchCriteria criteria, String index, String table) {
+        requestSqlStats.recordSql();
+        int from = requestSqlStats.getSql().size();
+        long indexBefore = scans(index);
+        long tableBefore = scans(table);
+
+        List<AssetDto> assets = assetQueryRepository.search(criteria, null, 100);
+
+        Scans scans = new Scans(scans(index) - indexBefore, scans(table) - tableBefore,
+                requestSqlStats.getSql().subList(from, requestSqlStats.getSql().size()));
+        assertEquals(1, assets.size(), scans.message());
+        return scans;
+    }
+
+    // Za indeks število pregledov indeksa, za tabelo število sekvenčnih pregledov v trenutni transakciji
+    private long scans(String relation) {
+        return ((Number) entityManager.createNativeQuery("select pg_stat_get_xact_numscans(cast(? as regclass))")
+                .setParameter(1, relation)
+                .getSingleResult()).longValue();
+    }
+
+    private void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+
+    private record Scans(long index, long table, List<String> sql) {
+
+        String message() {
+            return index + " index scans, " + table + " sequential scans for:\n" + String.join("\n", sql);
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package org.asset.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.ws.rs.core.MediaType;
+import org.asset.dto.AssetHistoryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinaryFormatWriterTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private BinaryFormatWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new BinaryFormatWriter();
+        writer.objectMapper = jsonMapper;
+        writer.init();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {BinaryFormatWriter.APPLICATION_CBOR, BinaryFormatWriter.APPLICATION_SMILE})
+    void historyDetailsAreWrittenInBinaryFormats(String mediaType) throws Exception {
+        JsonNode details = jsonMapper.readTree("{\"title\":{\"from\":\"Pump\",\"to\":\"Pump 2\"}," +
+                "\"addedLinks\":[{\"id\":5,\"sourceAssetId\":1,\"targetAssetId\":2}]}");
+        AssetHistoryDto history = new AssetHistoryDto(1L, "UPDATED", details, Instant.parse("2026-01-02T03:04:05Z"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(history, AssetHistoryDto.class, AssetHistoryDto.class, new Annotation[0],
+                MediaType.valueOf(mediaType), null, out);
+
+        JsonNode read = BinaryFormatWriter.binaryMapper(jsonMapper, mediaType).readTree(out.toByteArray());
+        assertEquals(details, read.get("details"));
+        assertEquals("UPDATED", read.get("type").asText());
+    }
+
+}
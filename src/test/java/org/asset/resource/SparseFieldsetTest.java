@@ -0,0 +1,85 @@
+package org.asset.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.asset.AssetFixtures;
+import org.asset.DatabaseAvailable;
+import org.asset.service.AssetService;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// fields= mora zmanjšati odgovor in preskočiti poizvedbe za kolekcije, ki jih odjemalec ni izbral
+@QuarkusTest
+@DatabaseAvailable
+public class SparseFieldsetTest {
+
+    private static final int PAGE = 20;
+
+    @Inject
+    AssetService assetService;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void createAssets() {
+        ids = AssetFixtures.createChain(assetService, "sparse", PAGE);
+    }
+
+    @Test
+    void idAndTitleSkipCollectionQueriesAndShrinkPayload() {
+        Page full = get(null);
+        Page sparse = get("id,title");
+
+        assertTrue(full.body.contains("\"attributes\""));
+        assertFalse(sparse.body.contains("\"attributes\""));
+        assertFalse(sparse.body.contains("Links\""));
+        assertTrue(sparse.body.contains("\"sparse 0\""));
+        assertTrue(sparse.body.length() * 3 < full.body.length(), sparse.body.length() + " vs " + full.body.length());
+        assertEquals(1, sparse.statements);
+        assertTrue(full.statements > sparse.statements, full.statements + " statements for the full page");
+    }
+
+    @Test
+    void attributesOnlySkipLinkQueries() {
+        Page full = get(null);
+        Page attributes = get("attributes");
+
+        assertTrue(attributes.body.contains("\"serial\""));
+        assertFalse(attributes.body.contains("Links\""));
+        assertTrue(attributes.statements < full.statements,
+                attributes.statements + " vs " + full.statements + " statements");
+    }
+
+    @Test
+    void unknownFieldIsBadRequest() {
+        given().queryParam("fields", "title,owner")
+                .when().get("/assets")
+                .then().statusCode(400);
+    }
+
+    private Page get(String fields) {
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+        var request = given().queryParam("after", ids.get(0) - 1).queryParam("limit", PAGE);
+        if (fields != null) {
+            request.queryParam("fields", fields);
+        }
+        String body = request.when().get("/assets").then().statusCode(200).extract().asString();
+        return new Page(body, sessionFactory.getStatistics().getPrepareStatementCount());
+    }
+
+    private record Page(String body, long statements) {
+    }
+
+}
@@ -0,0 +1,131 @@
+package org.asset.resource;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThresholdGzipOutputStreamTest {
+
+    private final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+    private final List<Boolean> decisions = new ArrayList<>();
+
+    @Test
+    void bodyBelowThresholdIsWrittenUncompressed() throws IOException {
+        CompressionInterceptor.ThresholdGzipOutputStream output = stream(1024, true);
+
+        output.write(bytes(1023));
+        assertEquals(0, target.size());
+        output.finish();
+
+        assertEquals(List.of(false), decisions);
+        assertArrayEquals(bytes(1023), target.toByteArray());
+    }
+
+    @Test
+    void bodyReachingThresholdIsCompressed() throws IOException {
+        CompressionInterceptor.ThresholdGzipOutputStream output = stream(1024, true);
+
+        output.write(bytes(600));
+        output.write(bytes(600));
+        output.finish();
+
+        assertEquals(List.of(true), decisions);
+        byte[] expected = new byte[1200];
+        System.arraycopy(bytes(600), 0, expected, 0, 600);
+        System.arraycopy(bytes(600), 0, expected, 600, 600);
+        assertArrayEquals(expected, gunzip(target.toByteArray()));
+    }
+
+    @Test
+    void refusedCompressionFallsBackToPlainBody() throws IOException {
+        CompressionInterceptor.ThresholdGzipOutputStream output = stream(16, false);
+
+        output.write(bytes(100));
+        output.finish();
+
+        assertEquals(List.of(true), decisions);
+        assertArrayEquals(bytes(100), target.toByteArray());
+    }
+
+    // Pretočni odgovor: prag 0, flush pošlje vse do sedaj zapisano, ne da bi čakal na konec telesa
+    @Test
+    void zeroThresholdFlushesCompressedBytesBeforeFinish() throws IOException {
+        CompressionInterceptor.ThresholdGzipOutputStream output = stream(0, true);
+
+        byte[] line = "{\"id\":1,\"title\":\"pump\"}\n".getBytes(StandardCharsets.UTF_8);
+        output.write(line);
+        output.flush();
+
+        assertEquals(List.of(true), decisions);
+        assertTrue(target.size() > 0);
+        assertArrayEquals(line, inflatePartial(target.toByteArray()));
+
+        output.finish();
+        assertArrayEquals(line, gunzip(target.toByteArray()));
+    }
+
+    @Test
+    void finishIsIdempotent() throws IOException {
+        CompressionInterceptor.ThresholdGzipOutputStream output = stream(1024, true);
+
+        output.write(bytes(10));
+        output.finish();
+        output.close();
+
+        assertEquals(List.of(false), decisions);
+        assertEquals(10, target.size());
+    }
+
+    private CompressionInterceptor.ThresholdGzipOutputStream stream(int threshold, boolean compress) {
+        return new CompressionInterceptor.ThresholdGzipOutputStream(target, threshold, aboveThreshold -> {
+            decisions.add(aboveThreshold);
+            return aboveThreshold && compress;
+        });
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) 'a');
+        return bytes;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return input.readAllBytes();
+        }
+    }
+
+    // Nedokončan gzip tok: preskoči 10-bajtno glavo in razširi, kar je bilo sinhrono splaknjeno
+    private static byte[] inflatePartial(byte[] compressed) throws IOException {
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(compressed, 10, compressed.length - 10);
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        byte[] chunk = new byte[256];
+        try {
+            int read;
+            while ((read = inflater.inflate(chunk)) > 0) {
+                inflated.write(chunk, 0, read);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+        return inflated.toByteArray();
+    }
+
+}
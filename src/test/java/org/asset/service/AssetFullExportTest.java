@@ -0,0 +1,43 @@
+package org.asset.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AssetFullExportTest {
+
+    @Test
+    void plainValuesAreNotQuoted() throws IOException {
+        assertEquals("pump 7", csv("pump 7"));
+        assertEquals("čćž;'x'", csv("čćž;'x'"));
+        assertEquals("", csv(""));
+    }
+
+    @Test
+    void nullIsAnEmptyField() throws IOException {
+        assertEquals("", csv(null));
+    }
+
+    @Test
+    void separatorsAndLineBreaksAreQuoted() throws IOException {
+        assertEquals("\"a,b\"", csv("a,b"));
+        assertEquals("\"line\nbreak\"", csv("line\nbreak"));
+        assertEquals("\"cr\rlf\"", csv("cr\rlf"));
+    }
+
+    @Test
+    void quotesAreDoubled() throws IOException {
+        assertEquals("\"say \"\"hi\"\"\"", csv("say \"hi\""));
+        assertEquals("\"\"\"\"", csv("\""));
+    }
+
+    private static String csv(String value) throws IOException {
+        StringWriter writer = new StringWriter();
+        AssetFullExport.writeCsvValue(writer, value);
+        return writer.toString();
+    }
+
+}
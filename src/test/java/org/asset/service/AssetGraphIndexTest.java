@@ -0,0 +1,207 @@
+package org.asset.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.asset.dto.AssetLinkDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AssetGraphIndexTest {
+
+    private AssetGraphIndex index;
+
+    // Zlivanja se ne izvedejo sama, test jih požene, ko hoče
+    private final List<Runnable> compactions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new AssetGraphIndex();
+        index.meterRegistry = new SimpleMeterRegistry();
+        index.compactionThreshold = 2;
+        index.compactionExecutor = compactions::add;
+    }
+
+    @Test
+    void traversesLoadedGraph() {
+        index.build(() -> edges(link(1, 10, 20), link(2, 20, 30), link(3, 40, 20)));
+
+        assertEquals(Map.of(20L, 1, 30L, 2), index.traverse(10, 5, TraversalDirection.OUT, 100).toMap());
+        assertEquals(Map.of(10L, 1, 40L, 1), index.traverse(20, 5, TraversalDirection.IN, 100).toMap());
+        assertEquals(3, index.edgeCount());
+    }
+
+    @Test
+    void changesCommittedDuringLoadAreNotAppliedTwice() {
+        index.build(() -> {
+            // Povezava 2 je v bazi že ob branju, 3 je bila dodana in odstranjena pred branjem, 4 pride za branjem
+            index.onAssetChanged(added(link(2, 20, 30)));
+            index.onAssetChanged(added(link(3, 20, 40)));
+            index.onAssetChanged(removed(link(3, 20, 40)));
+            index.onAssetChanged(added(link(4, 30, 50)));
+            return edges(link(1, 10, 20), link(2, 20, 30));
+        });
+
+        assertEquals(3, index.edgeCount());
+        assertEquals(Map.of(20L, 1, 30L, 2, 50L, 3), index.traverse(10, 5, TraversalDirection.OUT, 100).toMap());
+    }
+
+    @Test
+    void duplicateEventsAreIdempotent() {
+        index.compactionThreshold = 100;
+        index.build(() -> edges(link(1, 10, 20)));
+
+        index.onAssetChanged(added(link(1, 10, 20)));
+        index.onAssetChanged(added(link(2, 10, 30)));
+        index.onAssetChanged(added(link(2, 10, 30)));
+        index.onAssetChanged(removed(link(1, 10, 20)));
+        index.onAssetChanged(removed(link(1, 10, 20)));
+
+        assertEquals(1, index.edgeCount());
+        assertEquals(Map.of(30L, 1), index.traverse(10, 5, TraversalDirection.OUT, 100).toMap());
+    }
+
+    @Test
+    void parallelLinksAreRemovedOneAtATime() {
+        index.compactionThreshold = 100;
+        index.build(() -> edges(link(1, 10, 20), link(2, 10, 20)));
+        index.onAssetChanged(added(link(3, 10, 20)));
+
+        index.onAssetChanged(removed(link(1, 10, 20)));
+        index.onAssetChanged(removed(link(3, 10, 20)));
+
+        assertEquals(1, index.edgeCount());
+        assertEquals(Map.of(20L, 1), index.traverse(10, 5, TraversalDirection.OUT, 100).toMap());
+
+        index.onAssetChanged(removed(link(2, 10, 20)));
+
+        assertEquals(0, index.edgeCount());
+        assertEquals(Map.of(), index.traverse(10, 5, TraversalDirection.BOTH, 100).toMap());
+    }
+
+    @Test
+    void compactionRunsInBackgroundAndKeepsLaterChanges() {
+        index.build(() -> edges(link(1, 10, 20)));
+
+        index.onAssetChanged(added(link(2, 20, 30)));
+        index.onAssetChanged(added(link(3, 30, 40)));
+        index.onAssetChanged(removed(link(1, 10, 20)));
+        assertEquals(1, compactions.size());
+        assertEquals(Map.of(30L, 1, 40L, 2), index.traverse(20, 5, TraversalDirection.OUT, 100).toMap());
+
+        // Spremembe med zlivanjem se po zamenjavi ponovijo nad novim CSR
+        index.onAssetChanged(added(link(4, 40, 50)));
+        index.onAssetChanged(removed(link(2, 20, 30)));
+        assertEquals(1, compactions.size());
+
+        compactions.remove(0).run();
+
+        assertEquals(2, index.edgeCount());
+        assertEquals(Map.of(), index.traverse(20, 5, TraversalDirection.OUT, 100).toMap());
+        assertEquals(Map.of(40L, 1, 50L, 2), index.traverse(30, 5, TraversalDirection.OUT, 100).toMap());
+        assertEquals(Map.of(30L, 1), index.traverse(40, 5, TraversalDirection.IN, 100).toMap());
+    }
+
+    @Test
+    void compactedIndexMatchesUncompacted() {
+        index.build(() -> edges(link(1, 10, 20), link(2, 20, 30)));
+        for (long id = 3; id < 40; id++) {
+            index.onAssetChanged(added(link(id, id * 10, (id + 1) * 10)));
+            if (id % 5 == 0) {
+                index.onAssetChanged(removed(link(id - 1, (id - 1) * 10, id * 10)));
+            }
+            while (!compactions.isEmpty()) {
+                compactions.remove(0).run();
+            }
+        }
+
+        AssetGraphIndex reference = new AssetGraphIndex();
+        reference.meterRegistry = new SimpleMeterRegistry();
+        reference.compactionThreshold = Integer.MAX_VALUE;
+        reference.build(() -> edges(link(1, 10, 20), link(2, 20, 30)));
+        for (long id = 3; id < 40; id++) {
+            reference.onAssetChanged(added(link(id, id * 10, (id + 1) * 10)));
+            if (id % 5 == 0) {
+                reference.onAssetChanged(removed(link(id - 1, (id - 1) * 10, id * 10)));
+            }
+        }
+
+        assertEquals(reference.edgeCount(), index.edgeCount());
+        for (long node = 10; node <= 400; node += 10) {
+            assertEquals(reference.traverse(node, 50, TraversalDirection.BOTH, 1000).toMap(),
+                    index.traverse(node, 50, TraversalDirection.BOTH, 1000).toMap());
+        }
+        assertTrue(index.memoryFootprint() > 0);
+    }
+
+    @Test
+    void deltaSurvivesGrowthAndRemovals() {
+        index.compactionThreshold = Integer.MAX_VALUE;
+        index.build(() -> edges(link(1, 1, 2)));
+
+        // Veliko vozlišč poveča tabele delte, odstranitve pustijo nagrobnike, ponovno dodajanje jih oživi
+        List<AssetLinkDto> expected = new ArrayList<>(List.of(link(1, 1, 2)));
+        for (long id = 2; id <= 3000; id++) {
+            index.onAssetChanged(added(link(id, id, id + 1)));
+            expected.add(link(id, id, id + 1));
+        }
+        for (long id = 2; id <= 3000; id += 2) {
+            index.onAssetChanged(removed(link(id, id, id + 1)));
+            long removedId = id;
+            expected.removeIf(link -> link.getId() == removedId);
+        }
+        for (long id = 4000; id < 4100; id++) {
+            index.onAssetChanged(added(link(id, id - 3990, id - 3989)));
+            expected.add(link(id, id - 3990, id - 3989));
+        }
+
+        AssetGraphIndex reference = new AssetGraphIndex();
+        reference.meterRegistry = new SimpleMeterRegistry();
+        reference.build(() -> edges(expected.toArray(new AssetLinkDto[0])));
+
+        assertEquals(reference.edgeCount(), index.edgeCount());
+        for (long node = 1; node <= 3001; node += 7) {
+            assertEquals(reference.traverse(node, 3, TraversalDirection.BOTH, 1000).toMap(),
+                    index.traverse(node, 3, TraversalDirection.BOTH, 1000).toMap());
+        }
+    }
+
+    @Test
+    void traversalKeepsDiscoveryOrderAndLimit() {
+        index.build(() -> edges(link(1, 10, 30), link(2, 10, 20), link(3, 20, 40), link(4, 30, 50)));
+
+        AssetGraphIndex.Traversal traversal = index.traverse(10, 5, TraversalDirection.OUT, 3);
+
+        assertEquals(3, traversal.size());
+        assertEquals(30, traversal.node(0));
+        assertEquals(20, traversal.node(1));
+        assertEquals(50, traversal.node(2));
+        assertEquals(2, traversal.distance(2));
+    }
+
+    private static AssetLinkDto link(long id, long source, long target) {
+        return new AssetLinkDto(id, source, target);
+    }
+
+    private static AssetGraphIndex.EdgeList edges(AssetLinkDto... links) {
+        AssetGraphIndex.EdgeList edges = new AssetGraphIndex.EdgeList(links.length);
+        for (AssetLinkDto link : links) {
+            edges.add(link.getId(), link.getSourceAssetId(), link.getTargetAssetId());
+        }
+        return edges;
+    }
+
+    private static AssetChangedEvent added(AssetLinkDto link) {
+        return new AssetChangedEvent(null, AssetChangedEvent.Type.LINKS_CHANGED, List.of(link), List.of());
+    }
+
+    private static AssetChangedEvent removed(AssetLinkDto link) {
+        return new AssetChangedEvent(null, AssetChangedEvent.Type.LINKS_CHANGED, List.of(), List.of(link));
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.asset.service;
+
+import org.asset.dto.AssetLinkDto;
+import org.asset.model.Asset;
+import org.asset.model.AssetLink;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AssetLinkDiffTest {
+
+    private static final long ASSET = 1L;
+
+    @Test
+    void unchangedLinksProduceNoChanges() {
+        List<AssetLink> existing = List.of(link(10, ASSET, 2), link(11, ASSET, 3));
+
+        AssetLinkDiff diff = AssetLinkDiff.compute(ASSET, true, existing,
+                List.of(dto(10L, ASSET, 2L), dto(11L, ASSET, 3L)));
+
+        assertTrue(diff.getAdded().isEmpty());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+
+    @Test
+    void linksWithoutIdMatchByOtherEnd() {
+        List<AssetLink> existing = List.of(link(10, ASSET, 2));
+
+        AssetLinkDiff diff = AssetLinkDiff.compute(ASSET, true, existing, List.of(dto(null, null, 2L)));
+
+        assertTrue(diff.getAdded().isEmpty());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+
+    @Test
+    void missingLinksAreRemovedAndNewOnesAdded() {
+        AssetLink kept = link(10, ASSET, 2);
+        AssetLink dropped = link(11, ASSET, 3);
+
+        AssetLinkDiff diff = AssetLinkDiff.compute(ASSET, true, List.of(kept, dropped),
+                List.of(dto(10L, ASSET, 2L), dto(null, ASSET, 4L)));
+
+        assertEquals(1, diff.getRemoved().size());
+        assertSame(dropped, diff.getRemoved().get(0));
+        assertEquals(1, diff.getAdded().size());
+        assertLink(diff.getAdded().get(0), ASSET, 4L);
+    }
+
+    @Test
+    void idPointingAtAnotherEndIsTreatedAsNewLink() {
+        AssetLinkDiff diff = AssetLinkDiff.compute(ASSET, true, List.of(link(10, ASSET, 2)),
+                List.of(dto(10L, ASSET, 5L)));
+
+        assertEquals(1, diff.getRemoved().size());
+        assertEquals(1, diff.getAdded().size());
+        assertLink(diff.getAdded().get(0), ASSET, 5L);
+    }
+
+    @Test
+    void parallelLinksAreMatchedOneToOne() {
+        List<AssetLink> existing = List.of(link(10, ASSET, 2), link(11, ASSET, 2));
+
+        AssetLinkDiff fewer = AssetLinkDiff.compute(ASSET, true, existing, List.of(dto(null, ASSET, 2L)));
+        assertEquals(1, fewer.getRemoved().size());
+        assertTrue(fewer.getAdded().isEmpty());
+
+        AssetLinkDiff more = AssetLinkDiff.compute(ASSET, true, existing,
+                List.of(dto(null, ASSET, 2L), dto(null, ASSET, 2L), dto(null, ASSET, 2L)));
+        assertTrue(more.getRemoved().isEmpty());
+        assertEquals(1, more.getAdded().size());
+    }
+
+    @Test
+    void duplicateIdKeepsOnlyOneLink() {
+        AssetLinkDiff diff = AssetLinkDiff.compute(ASSET, true, List.of(link(10, ASSET, 2)),
+                List.of(dto(10L, ASSET, 2L), dto(10L, ASSET, 2L)));
+
+        assertTrue(diff.getRemoved().isEmpty());
+        assertEquals(1, diff.getAdded().size());
+    }
+
+    @Test
+    void incomingLinksKeepAssetAsTarget() {
+        List<AssetLink> existing = List.of(link(10, 2, ASSET));
+
+        AssetLinkDiff diff = AssetLinkDiff.compute(ASSET, false, existing,
+                List.of(dto(null, 2L, null), dto(null, 3L, 99L)));
+
+        assertTrue(diff.getRemoved().isEmpty());
+        assertEquals(1, diff.getAdded().size());
+        assertLink(diff.getAdded().get(0), 3L, ASSET);
+    }
+
+    @Test
+    void addedLinksHaveNoId() {
+        AssetLinkDiff diff = AssetLinkDiff.compute(ASSET, true, List.of(), List.of(dto(42L, ASSET, 2L)));
+
+        assertNull(diff.getAdded().get(0).getId());
+    }
+
+    private static void assertLink(AssetLinkDto link, long source, long target) {
+        assertEquals(source, link.getSourceAssetId());
+        assertEquals(target, link.getTargetAssetId());
+    }
+
+    private static AssetLink link(long id, long source, long target) {
+        return new AssetLink(id, asset(source), asset(target));
+    }
+
+    private static Asset asset(long id) {
+        Asset asset = new Asset();
+        asset.setId(id);
+        return asset;
+    }
+
+    private static AssetLinkDto dto(Long id, Long source, Long target) {
+        return new AssetLinkDto(id, source, target);
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.asset.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.asset.AssetFixtures;
+import org.asset.DatabaseAvailable;
+import org.asset.dto.AssetDto;
+import org.asset.dto.AssetField;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Bralna pot brez N+1: število SQL stavkov ne sme rasti s številom assetov na strani
+@QuarkusTest
+@DatabaseAvailable
+public class AssetReadPathTest {
+
+    private static final int MAX_PAGE_STATEMENTS = 4;
+
+    @Inject
+    AssetService assetService;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void pageStatementCountDoesNotGrowWithPageSize() {
+        List<Long> small = AssetFixtures.createChain(assetService, "n+1 small", 3);
+        List<Long> large = AssetFixtures.createChain(assetService, "n+1 large", 30);
+
+        long smallStatements = statements(() -> assetService.getAllAssets(small.get(0) - 1, small.size(), AssetField.parse(null)));
+        long largeStatements = statements(() -> assetService.getAllAssets(large.get(0) - 1, large.size(), AssetField.parse(null)));
+
+        List<AssetDto> page = assetService.getAllAssets(large.get(0) - 1, large.size(), AssetField.parse(null));
+        assertEquals(large.size(), page.size());
+        assertEquals(2, page.get(1).getAttributes().size());
+        assertEquals(large.get(0), page.get(1).getOutgoingLinks().get(0).getTargetAssetId());
+        assertEquals(large.get(1), page.get(0).getIncomingLinks().get(0).getSourceAssetId());
+        assertTrue(smallStatements > 0, "Hibernate statistics are disabled");
+        assertEquals(smallStatements, largeStatements);
+        assertTrue(largeStatements <= MAX_PAGE_STATEMENTS, largeStatements + " statements for one page");
+    }
+
+    @Test
+    void singleAssetLoadsWithoutLazyCollections() {
+        List<Long> ids = AssetFixtures.createChain(assetService, "n+1 single", 3);
+
+        long statements = statements(() -> assetService.getAssetById(ids.get(1), AssetField.parse(null)));
+
+        assertTrue(statements <= MAX_PAGE_STATEMENTS, statements + " statements for one asset");
+        assertEquals(0, sessionFactory.getStatistics().getCollectionFetchCount());
+        assertEquals(0, sessionFactory.getStatistics().getEntityLoadCount());
+    }
+
+    @Test
+    void batchGetStatementCountDoesNotGrowWithIdCount() {
+        List<Long> small = AssetFixtures.createChain(assetService, "n+1 batch small", 2);
+        List<Long> large = AssetFixtures.createChain(assetService, "n+1 batch large", 25);
+
+        long smallStatements = statements(() -> assetService.getAssetsByIds(small));
+        long largeStatements = statements(() -> assetService.getAssetsByIds(large));
+
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    // Second-level in query cache se izpraznita, da se štejejo vsi stavki, ki bi jih izvedla hladna zahteva
+    private long statements(Supplier<?> read) {
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+        read.get();
+        return sessionFactory.getStatistics().getPrepareStatementCount();
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.asset.service;
+
+import org.asset.dto.AssetLinkDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadRoutingTest {
+
+    private ReadRouting routing;
+
+    // Podpisi kot v AssetService
+    @SuppressWarnings("unused")
+    static class Reads {
+
+        void page(Long after, Integer limit) {
+        }
+
+        void byId(@AssetId Long id, String fields) {
+        }
+
+        void byIds(@AssetId List<Long> ids) {
+        }
+
+        void connected(String direction, @AssetId Long assetId) {
+        }
+
+    }
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReadRouting();
+        routing.enabled = true;
+        routing.primaryAfterWrite = Duration.ofMinutes(1);
+    }
+
+    @Test
+    void readsFromReplicaWhenNothingWasWritten() throws Exception {
+        assertTrue(routing.replicaFor(method("byId", Long.class, String.class), new Object[]{7L, null}));
+        assertTrue(routing.replicaFor(method("byIds", List.class), new Object[]{List.of(7L, 8L)}));
+    }
+
+    @Test
+    void recentlyWrittenAssetReadsFromPrimary() throws Exception {
+        write(7L);
+
+        assertFalse(routing.replicaFor(method("byId", Long.class, String.class), new Object[]{7L, null}));
+        assertTrue(routing.replicaFor(method("byId", Long.class, String.class), new Object[]{8L, null}));
+    }
+
+    @Test
+    void anyRecentlyWrittenIdInListReadsFromPrimary() throws Exception {
+        write(8L);
+
+        assertFalse(routing.replicaFor(method("byIds", List.class), new Object[]{List.of(7L, 8L)}));
+        assertTrue(routing.replicaFor(method("byIds", List.class), new Object[]{List.of(7L, 9L)}));
+    }
+
+    @Test
+    void assetIdIsFoundOutsideFirstParameter() throws Exception {
+        write(7L);
+
+        assertFalse(routing.replicaFor(method("connected", String.class, Long.class), new Object[]{"OUT", 7L}));
+    }
+
+    @Test
+    void pageCursorIsNotAnAssetId() throws Exception {
+        write(7L);
+
+        assertTrue(routing.replicaFor(method("page", Long.class, Integer.class), new Object[]{7L, 100}));
+    }
+
+    @Test
+    void linkEndpointsCountAsWritten() throws Exception {
+        routing.onAssetChanged(new AssetChangedEvent(null, AssetChangedEvent.Type.LINKS_CHANGED,
+                List.of(new AssetLinkDto(1L, 7L, 8L)), List.of()));
+
+        assertFalse(routing.replicaFor(method("byId", Long.class, String.class), new Object[]{8L, null}));
+    }
+
+    @Test
+    void writesExpireAfterWindow() throws Exception {
+        routing.primaryAfterWrite = Duration.ZERO;
+        write(7L);
+
+        assertTrue(routing.replicaFor(method("byId", Long.class, String.class), new Object[]{7L, null}));
+    }
+
+    @Test
+    void disabledRoutingReadsFromPrimary() throws Exception {
+        routing.enabled = false;
+
+        assertFalse(routing.replicaFor(method("page", Long.class, Integer.class), new Object[]{null, 100}));
+    }
+
+    private void write(Long assetId) {
+        routing.onAssetChanged(new AssetChangedEvent(assetId, AssetChangedEvent.Type.UPDATED, List.of(), List.of()));
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return Reads.class.getDeclaredMethod(name, parameterTypes);
+    }
+
+}